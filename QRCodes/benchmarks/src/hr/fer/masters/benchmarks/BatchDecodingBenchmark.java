@@ -0,0 +1,96 @@
+package hr.fer.masters.benchmarks;
+
+import hr.fer.masters.CodewordBatch;
+import hr.fer.masters.DecodeResult;
+import hr.fer.masters.DecoderWorkspace;
+import hr.fer.masters.GaloisField;
+import hr.fer.masters.ReedSolomonDecoding;
+import hr.fer.masters.ReedSolomonEncoding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// BATCH_SIZE GF(256) codewords per operation, errorPercent of them with a correctable number of errors, decoded one
+// by one or as a CodewordBatch. The forks add the Vector API module; -jvmArgsAppend -Dqrcodes.vector=false measures
+// the batch with the scalar syndrome check instead.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@OperationsPerInvocation(BatchDecodingBenchmark.BATCH_SIZE)
+public class BatchDecodingBenchmark {
+
+    static final int BATCH_SIZE = 256;
+    private static final int FCR = 0;
+
+    // Version 1-M, version 5-Q and a full length block
+    @Param({"26", "66", "255"})
+    public int blockLength;
+
+    @Param({"10", "18"})
+    public int parityCheckSymbols;
+
+    @Param({"0", "10"})
+    public int errorPercent;
+
+    private final GaloisField GF = GaloisField.GF256;
+
+    private int[][] received;
+    private int[] codeword;
+    private DecoderWorkspace workspace;
+    private CodewordBatch batch;
+    private DecodeResult[] results;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(21);
+        received = new int[BATCH_SIZE][blockLength];
+        for (int[] word : received) {
+            for (int i = parityCheckSymbols; i < blockLength; i++) {
+                word[i] = random.nextInt(256);
+            }
+            ReedSolomonEncoding.encode(GF, word, blockLength, parityCheckSymbols, FCR);
+
+            if (random.nextInt(100) < errorPercent) {
+                int errorCount = 1 + random.nextInt(parityCheckSymbols / 2);
+                for (int e = 0; e < errorCount; e++) {
+                    int position = random.nextInt(blockLength);
+                    word[position] = GF.add(word[position], 1 + random.nextInt(255));
+                }
+            }
+        }
+
+        codeword = new int[blockLength];
+        workspace = new DecoderWorkspace(GF, parityCheckSymbols);
+        batch = new CodewordBatch(GF, blockLength, parityCheckSymbols, FCR, BATCH_SIZE);
+        results = new DecodeResult[BATCH_SIZE];
+    }
+
+    @Benchmark
+    public int each() {
+        int corrected = 0;
+        for (int[] word : received) {
+            System.arraycopy(word, 0, codeword, 0, blockLength);
+            corrected += ReedSolomonDecoding.errorCorrection(GF, codeword, blockLength, parityCheckSymbols, FCR, workspace).getCorrectedSymbols();
+        }
+        return corrected;
+    }
+
+    // Loading the batch is part of every measurement, like the codeword copy of each()
+    @Benchmark
+    public int batch() {
+        for (int lane = 0; lane < BATCH_SIZE; lane++) {
+            batch.set(lane, received[lane]);
+        }
+        batch.decode(BATCH_SIZE, results, workspace);
+
+        int corrected = 0;
+        for (DecodeResult result : results) {
+            corrected += result.getCorrectedSymbols();
+        }
+        return corrected;
+    }
+}
@@ -0,0 +1,32 @@
+package hr.fer.masters.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the suite with the usual JMH command line options, always adding the GC profiler so that every result comes
+// with its allocation rate (gc.alloc.rate.norm is bytes allocated per operation)
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(options);
+
+        if (options.getIncludes().isEmpty())
+            builder.include(BenchmarkMain.class.getPackageName() + "\\..*");
+        boolean gcProfiler = options.getProfilers().stream()
+                .anyMatch(profiler -> profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName()));
+        if (!gcProfiler)
+            builder.addProfiler(GCProfiler.class);
+
+        try {
+            new Runner(builder.build()).run();
+        } catch (RunnerException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
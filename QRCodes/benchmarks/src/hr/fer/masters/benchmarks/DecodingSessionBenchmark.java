@@ -0,0 +1,93 @@
+package hr.fer.masters.benchmarks;
+
+import hr.fer.masters.DecodeResult;
+import hr.fer.masters.DecoderWorkspace;
+import hr.fer.masters.DecodingSession;
+import hr.fer.masters.GaloisField;
+import hr.fer.masters.ReedSolomonDecoding;
+import hr.fer.masters.ReedSolomonEncoding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A sequence of FRAMES captures of one GF(256) block with t / 2 errors, changedSymbols of which move to other positions
+// from one frame to the next, decoded from scratch every time or by a DecodingSession that updates the syndromes
+// of the changed symbols only. With changedSymbols = 0 every frame after the first reuses the previous correction.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodingSessionBenchmark {
+
+    private static final int FRAMES = 64;
+    private static final int FCR = 0;
+
+    @Param({"26", "153"})
+    public int blockLength;
+
+    @Param({"10", "30"})
+    public int parityCheckSymbols;
+
+    @Param({"0", "1", "2"})
+    public int changedSymbols;
+
+    private final GaloisField GF = GaloisField.GF256;
+
+    private int[][] frames;
+    private int[] codeword;
+    private DecoderWorkspace workspace;
+    private DecodingSession session;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(25);
+        int[] clean = new int[blockLength];
+        for (int i = parityCheckSymbols; i < blockLength; i++) {
+            clean[i] = random.nextInt(256);
+        }
+        ReedSolomonEncoding.encode(GF, clean, blockLength, parityCheckSymbols, FCR);
+
+        int errorCount = parityCheckSymbols / 4;
+        int[] positions = new int[errorCount];
+        for (int e = 0; e < errorCount; e++) {
+            positions[e] = random.nextInt(blockLength);
+        }
+
+        frames = new int[FRAMES][];
+        for (int f = 0; f < FRAMES; f++) {
+            for (int e = 0; e < changedSymbols && e < errorCount; e++) {
+                positions[e] = random.nextInt(blockLength);
+            }
+            frames[f] = clean.clone();
+            for (int position : positions) {
+                frames[f][position] = GF.add(clean[position], 1 + position % 255);
+            }
+        }
+
+        codeword = new int[blockLength];
+        workspace = new DecoderWorkspace(GF, parityCheckSymbols);
+        session = new DecodingSession(GF, blockLength, parityCheckSymbols, FCR);
+    }
+
+    @Benchmark
+    public DecodeResult errorCorrection() {
+        int[] frame = frames[next];
+        next = (next + 1) % FRAMES;
+
+        System.arraycopy(frame, 0, codeword, 0, blockLength);
+        return ReedSolomonDecoding.errorCorrection(GF, codeword, blockLength, parityCheckSymbols, FCR, workspace);
+    }
+
+    @Benchmark
+    public DecodeResult session() {
+        int[] frame = frames[next];
+        next = (next + 1) % FRAMES;
+
+        System.arraycopy(frame, 0, codeword, 0, blockLength);
+        return session.decode(codeword);
+    }
+}
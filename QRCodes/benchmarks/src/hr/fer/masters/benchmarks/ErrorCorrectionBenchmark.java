@@ -0,0 +1,107 @@
+package hr.fer.masters.benchmarks;
+
+import hr.fer.masters.DecodeResult;
+import hr.fer.masters.DecoderWorkspace;
+import hr.fer.masters.GaloisField;
+import hr.fer.masters.MessagePolynomial;
+import hr.fer.masters.ReedSolomonDecoding;
+import hr.fer.masters.ReedSolomonEncoding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Reed-Solomon error correction of GF(256) codewords of blockLength symbols with parityCheckSymbols = 2t, cycling
+// through a pool of received words with errors injected at random positions:
+//   CLEAN   no errors, the syndrome check fast path
+//   LIMIT   t errors, the most the code corrects
+//   BEYOND  t + 1 errors; decoding detects it as uncorrectable or miscorrects
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorCorrectionBenchmark {
+
+    public enum Errors {
+        CLEAN, LIMIT, BEYOND
+    }
+
+    private static final int POOL_SIZE = 256;
+    private static final int FCR = 0;
+
+    @Param({"32", "64", "153", "255"})
+    public int blockLength;
+
+    @Param({"8", "16", "30"})
+    public int parityCheckSymbols;
+
+    @Param
+    public Errors errors;
+
+    private final GaloisField GF = GaloisField.GF256;
+
+    private int[][] received;
+    private MessagePolynomial[] receivedPolynomials;
+    private int[] codeword;
+    private DecoderWorkspace workspace;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        int errorCount = errors == Errors.CLEAN ? 0 : parityCheckSymbols / 2 + (errors == Errors.BEYOND ? 1 : 0);
+
+        received = new int[POOL_SIZE][blockLength];
+        receivedPolynomials = new MessagePolynomial[POOL_SIZE];
+        int[] positions = new int[blockLength];
+        for (int w = 0; w < POOL_SIZE; w++) {
+            int[] word = received[w];
+            for (int i = parityCheckSymbols; i < blockLength; i++) {
+                word[i] = random.nextInt(256);
+            }
+            ReedSolomonEncoding.encode(GF, word, blockLength, parityCheckSymbols, FCR);
+
+            // errorCount distinct positions from a partial Fisher-Yates shuffle
+            for (int i = 0; i < blockLength; i++) {
+                positions[i] = i;
+            }
+            for (int e = 0; e < errorCount; e++) {
+                int j = e + random.nextInt(blockLength - e);
+                int position = positions[j];
+                positions[j] = positions[e];
+                positions[e] = position;
+                word[position] = GF.add(word[position], 1 + random.nextInt(255));
+            }
+            receivedPolynomials[w] = new MessagePolynomial(GF, word);
+        }
+
+        codeword = new int[blockLength];
+        workspace = new DecoderWorkspace(GF, parityCheckSymbols);
+    }
+
+    // Allocation free decoder on a reused workspace; the codeword copy is part of every measurement
+    @Benchmark
+    public DecodeResult errorCorrection() {
+        int[] word = received[next];
+        next = (next + 1) % POOL_SIZE;
+
+        System.arraycopy(word, 0, codeword, 0, blockLength);
+        return ReedSolomonDecoding.errorCorrection(GF, codeword, blockLength, parityCheckSymbols, FCR, workspace);
+    }
+
+    // MessagePolynomial API, allocating a workspace and the corrected polynomial on every call and throwing for
+    // uncorrectable codewords
+    @Benchmark
+    public Object errorCorrectionMessagePolynomial() {
+        MessagePolynomial word = receivedPolynomials[next];
+        next = (next + 1) % POOL_SIZE;
+
+        try {
+            return ReedSolomonDecoding.errorCorrection(GF, word, parityCheckSymbols, FCR);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package hr.fer.masters.benchmarks;
+
+import hr.fer.masters.GaloisField;
+import hr.fer.masters.Polynomial;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// GF(256) and GF(65536) multiplication, division and inversion on integer representations, and multiplication through
+// the compatibility Polynomial representation
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldArithmeticBenchmark {
+
+    private static final int OPERATIONS = 1024;
+
+    // 8 for the product table of GF(256), 16 for the log-antilog tables of GF(65536)
+    @Param({"8", "16"})
+    public int fieldDegree;
+
+    private GaloisField GF;
+
+    private int[] a;
+    private int[] b;
+    private Polynomial[] polynomialA;
+    private Polynomial[] polynomialB;
+
+    @Setup
+    public void setUp() {
+        GF = fieldDegree == 16 ? GaloisField.gf65536() : GaloisField.GF256;
+        int q = GF.getOrder();
+
+        Random random = new Random(17);
+        a = new int[OPERATIONS];
+        b = new int[OPERATIONS];
+        polynomialA = new Polynomial[OPERATIONS];
+        polynomialB = new Polynomial[OPERATIONS];
+
+        for (int i = 0; i < OPERATIONS; i++) {
+            a[i] = random.nextInt(q);
+            b[i] = 1 + random.nextInt(q - 1);
+            polynomialA[i] = GF.toPolynomialRepresentation(a[i]);
+            polynomialB[i] = GF.toPolynomialRepresentation(b[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int mul() {
+        int result = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            result ^= GF.mul(a[i], b[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int div() {
+        int result = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            result ^= GF.div(a[i], b[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public int inv() {
+        int result = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            result ^= GF.inv(b[i]);
+        }
+        return result;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public void multiplyPolynomial(Blackhole blackhole) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            blackhole.consume(GF.multiply(polynomialA[i], polynomialB[i]));
+        }
+    }
+}
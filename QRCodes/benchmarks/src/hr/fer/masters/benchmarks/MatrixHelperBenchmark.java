@@ -0,0 +1,50 @@
+package hr.fer.masters.benchmarks;
+
+import hr.fer.masters.GaloisField;
+import hr.fer.masters.MatrixHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Determinant and linear system solution of random (almost surely regular) matrices over GF(256)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixHelperBenchmark {
+
+    @Param({"2", "4", "8", "15"})
+    public int size;
+
+    private int[][] matrix;
+    private int[] b;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        matrix = new int[size][size];
+        b = new int[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                matrix[i][j] = random.nextInt(256);
+            }
+            b[i] = random.nextInt(256);
+        }
+
+        if (MatrixHelper.determinant(GaloisField.GF256, matrix) == 0)
+            throw new IllegalStateException("Singular benchmark matrix, change the seed");
+    }
+
+    @Benchmark
+    public int determinant() {
+        return MatrixHelper.determinant(GaloisField.GF256, matrix);
+    }
+
+    @Benchmark
+    public int[] solveLinearSystem() {
+        return MatrixHelper.solveLinearSystem(GaloisField.GF256, matrix, b);
+    }
+}
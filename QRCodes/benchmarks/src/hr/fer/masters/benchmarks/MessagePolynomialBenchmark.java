@@ -0,0 +1,58 @@
+package hr.fer.masters.benchmarks;
+
+import hr.fer.masters.GaloisField;
+import hr.fer.masters.MessagePolynomial;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Multiplication of two polynomials of the given degree and division of their product (a codeword sized dividend) by
+// a divisor of degree parityCheckSymbols, as in generator polynomial construction and systematic encoding
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessagePolynomialBenchmark {
+
+    @Param({"16", "64", "127"})
+    public int degree;
+
+    @Param({"8", "30"})
+    public int parityCheckSymbols;
+
+    private MessagePolynomial p1;
+    private MessagePolynomial p2;
+    private MessagePolynomial dividend;
+    private MessagePolynomial divisor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(17);
+        p1 = random(random, degree);
+        p2 = random(random, degree);
+        dividend = MessagePolynomial.multiply(p1, p2);
+        divisor = random(random, parityCheckSymbols);
+    }
+
+    private static MessagePolynomial random(Random random, int degree) {
+        int[] coefficients = new int[degree + 1];
+        for (int i = 0; i < degree; i++) {
+            coefficients[i] = random.nextInt(256);
+        }
+        coefficients[degree] = 1 + random.nextInt(255);
+        return new MessagePolynomial(GaloisField.GF256, coefficients);
+    }
+
+    @Benchmark
+    public MessagePolynomial multiply() {
+        return MessagePolynomial.multiply(p1, p2);
+    }
+
+    @Benchmark
+    public MessagePolynomial.DivisionResult divide() {
+        return MessagePolynomial.divide(dividend, divisor);
+    }
+}
@@ -0,0 +1,13 @@
+package hr.fer.masters;
+
+// Syndrome check over a CodewordBatch in its structure-of-arrays layout, symbols[i * stride + lane] being the
+// coefficient of x^i of codeword lane. Implementations keep scratch state and are not thread-safe.
+interface BatchSyndromes {
+
+    // Number of lanes processed at once; the batch stride is a multiple of it
+    int lanes();
+
+    // For every lane in [0, count) rounded up to lanes(): flags[lane] is nonzero iff some syndrome of the codeword
+    // symbols[i * stride + lane], i < length, is nonzero
+    void check(byte[] symbols, int length, int stride, int count, byte[] flags);
+}
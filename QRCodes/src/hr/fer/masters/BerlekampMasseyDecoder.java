@@ -0,0 +1,60 @@
+package hr.fer.masters;
+
+import java.util.Arrays;
+
+// Berlekamp-Massey error locator on fixed int[] arrays of length parityCheckSymbols + 1 from the workspace
+public class BerlekampMasseyDecoder implements ReedSolomonDecoder {
+
+    @Override
+    public PolynomialBuffer errorLocator(GaloisField GF, int[] syndromes, int parityCheckSymbols, DecoderWorkspace workspace) {
+        int[] connection = workspace.connection;
+        int[] previous = workspace.previousConnection;
+        int[] copy = workspace.connectionCopy;
+        int size = connection.length;
+
+        Arrays.fill(connection, 0);
+        Arrays.fill(previous, 0);
+        connection[0] = 1;
+        previous[0] = 1;
+
+        // L - current LFSR length, shift - steps since the last length change, previousDiscrepancy - b
+        int L = 0;
+        int shift = 1;
+        int previousDiscrepancy = 1;
+
+        for (int n = 0; n < parityCheckSymbols; n++) {
+            int discrepancy = syndromes[n];
+            for (int i = 1; i <= L; i++) {
+                discrepancy = GF.add(discrepancy, GF.mul(connection[i], syndromes[n - i]));
+            }
+
+            if (discrepancy == 0) {
+                shift++;
+                continue;
+            }
+
+            // C(x) = C(x) - d / b * x^shift * B(x)
+            int factor = GF.div(discrepancy, previousDiscrepancy);
+            boolean lengthChange = 2 * L <= n;
+            if (lengthChange)
+                System.arraycopy(connection, 0, copy, 0, size);
+
+            for (int i = 0; i + shift < size; i++) {
+                if (previous[i] != 0)
+                    connection[i + shift] = GF.subtract(connection[i + shift], GF.mul(factor, previous[i]));
+            }
+
+            if (lengthChange) {
+                L = n + 1 - L;
+                System.arraycopy(copy, 0, previous, 0, size);
+                previousDiscrepancy = discrepancy;
+                shift = 1;
+            } else {
+                shift++;
+            }
+        }
+
+        return workspace.locator.set(connection, Math.min(L + 1, size));
+    }
+
+}
@@ -0,0 +1,219 @@
+package hr.fer.masters;
+
+import java.util.Arrays;
+
+// GF(2^m) arithmetic for m <= 16; addition is XOR and multiplication goes through a full product table for m <= 8 and
+// through the log-antilog tables otherwise
+public class BinaryFieldArithmetic implements FieldArithmetic {
+
+    // Largest m for which the q * q product table is built (64 KB for GF(256))
+    public static final int MAX_PRODUCT_TABLE_DEGREE = 8;
+
+    // Largest supported m; elements and logarithms fit in a char, so the tables of GF(65536) take 512 KB
+    public static final int MAX_DEGREE = 16;
+
+    private final int m;
+    private final int q;
+
+    // Log-antilog table; exp table is doubled (length 2 * (q - 1)) so that log[a] + log[b] never needs a modulo
+    private final char[] expTable;
+    private final char[] logTable;
+    private final char[] inverseTable;
+
+    // productTable[(a << m) | b] = a * b, null when m > MAX_PRODUCT_TABLE_DEGREE
+    private final byte[] productTable;
+
+    // primitivePolynomialInt is the bit representation of a primitive polynomial of degree m
+    public BinaryFieldArithmetic(int primitivePolynomialInt, int m) {
+        if (m < 1 || m > MAX_DEGREE)
+            throw new RuntimeException("GF(2^" + m + ") not supported, m must be between 1 and " + MAX_DEGREE);
+
+        this.m = m;
+        this.q = 1 << m;
+
+        expTable = new char[2 * (q - 1)];
+        logTable = new char[q];
+        inverseTable = new char[q];
+
+        // Without the x^0 term x divides the polynomial, so the powers of x reach 0 instead of cycling back to 1
+        if (primitivePolynomialInt >>> m != 1 || (primitivePolynomialInt & 1) == 0)
+            throw notPrimitive(primitivePolynomialInt);
+
+        // Multiplying by alpha = x is a shift with a conditional reduction, so the whole table takes q - 1 steps; alpha
+        // is primitive if its powers only return to 1 after all of them
+        int element = 1;
+        for (int i = 0; i < q - 1; i++) {
+            if (element == 0 || i > 0 && element == 1)
+                throw notPrimitive(primitivePolynomialInt);
+
+            expTable[i] = (char) element;
+            expTable[i + q - 1] = (char) element;
+            logTable[element] = (char) i;
+
+            element <<= 1;
+            if ((element & q) != 0)
+                element ^= primitivePolynomialInt;
+        }
+        if (element != 1)
+            throw notPrimitive(primitivePolynomialInt);
+
+        for (int a = 1; a < q; a++) {
+            inverseTable[a] = expTable[q - 1 - logTable[a]];
+        }
+
+        if (m <= MAX_PRODUCT_TABLE_DEGREE) {
+            productTable = new byte[q * q];
+            for (int a = 1; a < q; a++) {
+                for (int b = 1; b < q; b++) {
+                    productTable[(a << m) | b] = (byte) expTable[logTable[a] + logTable[b]];
+                }
+            }
+        } else {
+            productTable = null;
+        }
+    }
+
+    private static RuntimeException notPrimitive(int primitivePolynomialInt) {
+        return new RuntimeException("Polynomial " + Integer.toBinaryString(primitivePolynomialInt) + " is not primitive");
+    }
+
+    @Override
+    public int add(int a, int b) {
+        return a ^ b;
+    }
+
+    @Override
+    public int subtract(int a, int b) {
+        return a ^ b;
+    }
+
+    @Override
+    public int negate(int a) {
+        return a;
+    }
+
+    @Override
+    public int mul(int a, int b) {
+        if (productTable != null)
+            return productTable[(a << m) | b] & 0xFF;
+
+        if (a == 0 || b == 0)
+            return 0;
+        return expTable[logTable[a] + logTable[b]];
+    }
+
+    // Horner's rule walking the single product table row of point; addition is XOR. Without a product table the
+    // multiplication by point is an addition of its logarithm, looked up once.
+    @Override
+    public int evaluate(int[] coefficients, int length, int point) {
+        if (productTable == null) {
+            if (point == 0)
+                return length == 0 ? 0 : coefficients[0];
+
+            int logPoint = logTable[point];
+            int eval = 0;
+            for (int i = length - 1; i >= 0; i--) {
+                eval = (eval == 0 ? 0 : expTable[logTable[eval] + logPoint]) ^ coefficients[i];
+            }
+            return eval;
+        }
+
+        byte[] products = productTable;
+        int row = point << m;
+        int eval = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            eval = (products[row | eval] & 0xFF) ^ coefficients[i];
+        }
+        return eval;
+    }
+
+    // The points' Horner chains are independent, so walking them side by side keeps several table loads in flight
+    @Override
+    public void evaluateAll(int[] coefficients, int length, int[] points, int pointCount, int[] out) {
+        if (productTable == null) {
+            evaluateAllLog(coefficients, length, points, pointCount, out);
+            return;
+        }
+
+        byte[] products = productTable;
+        for (int k = 0; k < pointCount; k++) {
+            out[k] = 0;
+        }
+
+        for (int i = length - 1; i >= 0; i--) {
+            int coefficient = coefficients[i];
+            for (int k = 0; k < pointCount; k++) {
+                out[k] = (products[(points[k] << m) | out[k]] & 0xFF) ^ coefficient;
+            }
+        }
+    }
+
+    // evaluateAll through the log-antilog tables for fields too large for a product table
+    private void evaluateAllLog(int[] coefficients, int length, int[] points, int pointCount, int[] out) {
+        for (int k = 0; k < pointCount; k++) {
+            out[k] = 0;
+        }
+
+        for (int i = length - 1; i >= 0; i--) {
+            int coefficient = coefficients[i];
+            for (int k = 0; k < pointCount; k++) {
+                int eval = out[k];
+                int point = points[k];
+                out[k] = (eval == 0 || point == 0 ? 0 : expTable[logTable[eval] + logTable[point]]) ^ coefficient;
+            }
+        }
+    }
+
+    @Override
+    public int div(int a, int b) {
+        if (b == 0)
+            throw new RuntimeException("Division by zero");
+        return mul(a, inverseTable[b]);
+    }
+
+    @Override
+    public int inv(int a) {
+        if (a == 0)
+            throw new RuntimeException("Zero has no inverse");
+        return inverseTable[a];
+    }
+
+    @Override
+    public int pow(int a, int exponent) {
+        if (a == 0)
+            return exponent == 0 ? 1 : 0;
+
+        int power = (int) ((long) logTable[a] * exponent % (q - 1));
+        return expTable[power < 0 ? power + q - 1 : power];
+    }
+
+    @Override
+    public int exp(int power) {
+        power %= q - 1;
+        return expTable[power < 0 ? power + q - 1 : power];
+    }
+
+    @Override
+    public int log(int a) {
+        if (a == 0)
+            throw new RuntimeException("Logarithm of zero is undefined");
+        return logTable[a];
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryFieldArithmetic{" +
+                "expTable=" + tableToString(expTable, q - 1) +
+                ", logTable=" + tableToString(logTable, q) +
+                ", productTable=" + (productTable != null) +
+                '}';
+    }
+
+    private static String tableToString(char[] table, int length) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = table[i];
+        }
+        return Arrays.toString(values);
+    }
+}
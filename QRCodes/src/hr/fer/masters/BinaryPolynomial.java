@@ -0,0 +1,216 @@
+package hr.fer.masters;
+
+import java.util.Arrays;
+
+// Immutable polynomial over GF(2) packed into bits, the coefficient of x^i being bit (i % 64) of words[i / 64]. Addition
+// and subtraction are XOR, multiplication is carry-less shift-and-XOR and division reduces by the divisor shifted under
+// the highest set bit, so nothing is boxed and every step handles 64 coefficients at once.
+// mod(long, long) reduces a polynomial of degree below 64 the same way without allocating.
+public final class BinaryPolynomial {
+
+    public static final BinaryPolynomial ZERO = new BinaryPolynomial(new long[0]);
+    public static final BinaryPolynomial ONE = of(1);
+
+    // No trailing zero words; ZERO has none at all
+    private final long[] words;
+
+    private BinaryPolynomial(long[] words) {
+        this.words = words;
+    }
+
+    // Takes ownership of words[0, length)
+    private static BinaryPolynomial trimmed(long[] words, int length) {
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        if (length == 0)
+            return ZERO;
+        return new BinaryPolynomial(length == words.length ? words : Arrays.copyOf(words, length));
+    }
+
+    // Bit i of bits is the coefficient of x^i
+    public static BinaryPolynomial of(long bits) {
+        return bits == 0 ? ZERO : new BinaryPolynomial(new long[]{bits});
+    }
+
+    // Coefficients are reduced modulo 2
+    public static BinaryPolynomial of(Polynomial poly) {
+        long[] words = new long[poly.getDegree() / 64 + 1];
+        for (int i = 0; i <= poly.getDegree(); i++) {
+            words[i >>> 6] |= (long) (poly.getCoefficient(i) & 1) << i;
+        }
+        return trimmed(words, words.length);
+    }
+
+    public Polynomial toPolynomial() {
+        int[] coefficients = new int[getDegree() + 1];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = getCoefficient(i);
+        }
+        return new Polynomial(coefficients);
+    }
+
+    // Degree of the highest nonzero coefficient, 0 for the zero polynomial as for Polynomial
+    public int getDegree() {
+        return words.length == 0 ? 0 : degree(words, words.length);
+    }
+
+    public boolean isZero() {
+        return words.length == 0;
+    }
+
+    public int getCoefficient(int power) {
+        return power >>> 6 < words.length ? (int) (words[power >>> 6] >>> power) & 1 : 0;
+    }
+
+    // The packed coefficients of a polynomial of degree below 64
+    public long toLong() {
+        if (words.length > 1)
+            throw new RuntimeException("Degree " + getDegree() + " does not fit in a long");
+        return words.length == 0 ? 0 : words[0];
+    }
+
+    // Value at 0 or 1, the only elements of GF(2)
+    public int evaluate(int value) {
+        if ((value & 1) == 0)
+            return getCoefficient(0);
+
+        long parity = 0;
+        for (long word : words) {
+            parity ^= word;
+        }
+        return Long.bitCount(parity) & 1;
+    }
+
+    public static BinaryPolynomial add(BinaryPolynomial p1, BinaryPolynomial p2) {
+        long[] longer = p1.words.length >= p2.words.length ? p1.words : p2.words;
+        long[] shorter = longer == p1.words ? p2.words : p1.words;
+
+        long[] sum = longer.clone();
+        for (int i = 0; i < shorter.length; i++) {
+            sum[i] ^= shorter[i];
+        }
+        return trimmed(sum, sum.length);
+    }
+
+    public static BinaryPolynomial subtract(BinaryPolynomial p1, BinaryPolynomial p2) {
+        return add(p1, p2);
+    }
+
+    public static BinaryPolynomial multiply(BinaryPolynomial p1, BinaryPolynomial p2) {
+        if (p1.isZero() || p2.isZero())
+            return ZERO;
+
+        long[] product = new long[(p1.getDegree() + p2.getDegree()) / 64 + 1];
+        for (int w = 0; w < p1.words.length; w++) {
+            for (long bits = p1.words[w]; bits != 0; bits &= bits - 1) {
+                xorShifted(product, p2.words, p2.words.length, w * 64 + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        return trimmed(product, product.length);
+    }
+
+    public static DivisionResult divide(BinaryPolynomial p1, BinaryPolynomial p2) {
+        if (p2.isZero())
+            throw new RuntimeException("Division by zero");
+
+        int divisorDegree = p2.getDegree();
+        long[] remainder = p1.words.clone();
+        long[] quotient = new long[Math.max(0, p1.getDegree() - divisorDegree) / 64 + 1];
+
+        for (int d = p1.isZero() ? -1 : p1.getDegree(); d >= divisorDegree; d--) {
+            if ((remainder[d >>> 6] >>> d & 1) == 0)
+                continue;
+
+            int shift = d - divisorDegree;
+            quotient[shift >>> 6] |= 1L << shift;
+            xorShifted(remainder, p2.words, p2.words.length, shift);
+        }
+
+        return new DivisionResult(trimmed(quotient, quotient.length), trimmed(remainder, remainder.length));
+    }
+
+    public static BinaryPolynomial mod(BinaryPolynomial p1, BinaryPolynomial p2) {
+        return divide(p1, p2).getRemainder();
+    }
+
+    // a mod modulus for a nonzero packed modulus
+    public static long mod(long a, long modulus) {
+        int modulusDegree = degree(modulus);
+        for (int d = degree(a); a != 0 && d >= modulusDegree; d = degree(a)) {
+            a ^= modulus << (d - modulusDegree);
+        }
+        return a;
+    }
+
+    // Degree of a nonzero packed polynomial
+    private static int degree(long bits) {
+        return 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    private static int degree(long[] words, int length) {
+        return (length - 1) * 64 + degree(words[length - 1]);
+    }
+
+    // target ^= source[0, sourceLength) * x^shift, dropping whatever does not fit into target
+    private static void xorShifted(long[] target, long[] source, int sourceLength, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+
+        for (int i = 0; i < sourceLength && i + wordShift < target.length; i++) {
+            target[i + wordShift] ^= source[i] << bitShift;
+            if (bitShift != 0 && i + wordShift + 1 < target.length)
+                target[i + wordShift + 1] ^= source[i] >>> (64 - bitShift);
+        }
+    }
+
+    public static class DivisionResult {
+        private BinaryPolynomial result;
+        private BinaryPolynomial remainder;
+
+        public DivisionResult(BinaryPolynomial result, BinaryPolynomial remainder) {
+            this.result = result;
+            this.remainder = remainder;
+        }
+
+        public BinaryPolynomial getResult() {
+            return result;
+        }
+
+        public BinaryPolynomial getRemainder() {
+            return remainder;
+        }
+
+        @Override
+        public String toString() {
+            return "DivisionResult{" +
+                    "result=" + result +
+                    ", remainder=" + remainder +
+                    '}';
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BinaryPolynomial)) return false;
+        BinaryPolynomial that = (BinaryPolynomial) o;
+        return Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder bits = new StringBuilder();
+        for (int i = getDegree(); i >= 0; i--) {
+            bits.append(getCoefficient(i));
+        }
+        return "BinaryPolynomial{" +
+                "bits=" + bits +
+                '}';
+    }
+}
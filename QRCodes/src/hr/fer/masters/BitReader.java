@@ -0,0 +1,50 @@
+package hr.fer.masters;
+
+// Reads big-endian bit fields from 8 bit codewords through a 64 bit buffer refilled several codewords at a time
+public class BitReader {
+
+    private int[] codewords;
+    private int length;
+    private int index;
+
+    private long buffer;
+    private int bufferBits;
+
+    public BitReader() {
+        reset(new int[0], 0);
+    }
+
+    public BitReader(int[] codewords, int length) {
+        reset(codewords, length);
+    }
+
+    // Starts reading codewords[0, length) from the first bit
+    public BitReader reset(int[] codewords, int length) {
+        this.codewords = codewords;
+        this.length = length;
+        this.index = 0;
+        this.buffer = 0;
+        this.bufferBits = 0;
+        return this;
+    }
+
+    public int available() {
+        return bufferBits + (length - index) * 8;
+    }
+
+    // Reads the next n <= 32 bits, most significant first
+    public int readBits(int n) {
+        if (n > available())
+            throw new RuntimeException("Not enough bits in payload");
+
+        if (bufferBits < n) {
+            while (bufferBits <= 56 && index < length) {
+                buffer = (buffer << 8) | (codewords[index++] & 0xFF);
+                bufferBits += 8;
+            }
+        }
+
+        bufferBits -= n;
+        return (int) ((buffer >>> bufferBits) & ((1L << n) - 1));
+    }
+}
@@ -0,0 +1,329 @@
+package hr.fer.masters;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Re-decodes archives of captured codeword records. Input and output files are memory-mapped chunk by chunk and the
+// chunks are decoded in parallel. Every input record gets a fixed size output slot at index * getSlotSize():
+//   byte    status (STATUS_CLEAN, STATUS_CORRECTED or STATUS_FAILED)
+//   short   number of corrected codewords
+//   short   payload length in bytes
+//   byte[]  payload, UTF-8, padded with zeros to the longest text the data codewords can hold
+public class BulkDecoder {
+
+    public enum RecordFormat {
+        // Back to back records of exactly as many codeword bytes as the version and level have
+        FIXED,
+        // Records of a 2 byte big-endian codeword count followed by that many codeword bytes
+        LENGTH_PREFIXED
+    }
+
+    public static final byte STATUS_CLEAN = 0;
+    public static final byte STATUS_CORRECTED = 1;
+    public static final byte STATUS_FAILED = 2;
+
+    private static final int SLOT_HEADER = 5;
+
+    // Records per CodewordBatch when all records are single block symbols of the same version and level
+    private static final int BATCH_SIZE = 256;
+
+    private final int version;
+    private final ErrorCorrectionLevel level;
+    private final int threads;
+    private final int recordsPerChunk;
+
+    // level == null selects the single block version 1 inference of QRSymbolDecoder
+    public BulkDecoder(int version, ErrorCorrectionLevel level, int threads, int recordsPerChunk) {
+        this.version = version;
+        this.level = level;
+        this.threads = threads;
+        this.recordsPerChunk = recordsPerChunk;
+
+        // A chunk's slots are mapped as one buffer, which holds at most Integer.MAX_VALUE bytes
+        if (recordsPerChunk < 1 || (long) recordsPerChunk * getSlotSize() > Integer.MAX_VALUE)
+            throw new RuntimeException("Records per chunk must be between 1 and " + Integer.MAX_VALUE / getSlotSize());
+    }
+
+    public int getSlotSize() {
+        return SLOT_HEADER + maxPayload();
+    }
+
+    // At most 3 UTF-8 bytes per data codeword: numeric mode gives 3 digits per 10 bits, kanji a 3 byte character per
+    // 13 bits and byte mode up to 3 bytes per byte in 8 bit ECI charsets such as Cp437, also for the U+FFFD of an
+    // undecodable byte. The multibyte ECI charsets need at least as many bytes as UTF-8 does per character.
+    private int maxPayload() {
+        return dataCapacity() * 3;
+    }
+
+    private int dataCapacity() {
+        return level == null ? 26 : QRBlockStructure.of(version, level).getDataCodewords();
+    }
+
+    public Summary decode(Path input, RecordFormat format, Path output) throws IOException {
+        long[] offsets;
+        long recordCount;
+        long fixedLength = 0;
+
+        if (format == RecordFormat.FIXED) {
+            if (level == null)
+                throw new RuntimeException("Fixed size records need a version and error correction level");
+
+            fixedLength = QRBlockStructure.of(version, level).getTotalCodewords();
+            long size = Files.size(input);
+            if (size % fixedLength != 0)
+                throw new IOException("Input is not a whole number of " + fixedLength + " byte records");
+
+            offsets = null;
+            recordCount = size / fixedLength;
+        } else {
+            offsets = scanLengthPrefixed(input);
+            recordCount = offsets.length - 1;
+        }
+
+        Summary summary = new Summary();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long first = 0; first < recordCount; first += recordsPerChunk) {
+                long from = first;
+                long to = Math.min(recordCount, first + recordsPerChunk);
+                long recordLength = fixedLength;
+                chunks.add(workers.submit(() -> {
+                    decodeChunk(in, out, offsets, recordLength, from, to, summary);
+                    return null;
+                }));
+            }
+
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        return summary;
+    }
+
+    // Offsets of the records' length prefixes, plus the end of the last record as the final element
+    private static long[] scanLengthPrefixed(Path input) throws IOException {
+        long[] offsets = new long[1024];
+        int count = 0;
+        long offset = 0;
+
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(input), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = data.readUnsignedShort();
+                } catch (EOFException e) {
+                    break;
+                }
+                data.skipNBytes(length);
+
+                if (count == offsets.length - 1)
+                    offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                offsets[count++] = offset;
+                offset += 2 + length;
+            }
+        }
+
+        offsets[count] = offset;
+        return Arrays.copyOf(offsets, count + 1);
+    }
+
+    private void decodeChunk(FileChannel in, FileChannel out, long[] offsets, long recordLength, long from, long to, Summary summary) throws IOException {
+        long inStart = offsets == null ? from * recordLength : offsets[(int) from];
+        long inEnd = offsets == null ? to * recordLength : offsets[(int) to];
+        int slotSize = getSlotSize();
+
+        MappedByteBuffer records = in.map(FileChannel.MapMode.READ_ONLY, inStart, inEnd - inStart);
+        MappedByteBuffer slots = out.map(FileChannel.MapMode.READ_WRITE, from * slotSize, (to - from) * slotSize);
+
+        int count = (int) (to - from);
+        byte[] statuses = new byte[count];
+        if (offsets == null && level != null && QRBlockStructure.of(version, level).getBlockCount() == 1)
+            decodeBatched(records, slots, slotSize, count, statuses);
+        else
+            decodeEach(records, slots, slotSize, offsets, recordLength, from, count, statuses);
+
+        long clean = 0, corrected = 0, failed = 0;
+        for (byte status : statuses) {
+            if (status == STATUS_CLEAN)
+                clean++;
+            else if (status == STATUS_CORRECTED)
+                corrected++;
+            else
+                failed++;
+        }
+
+        slots.force();
+        summary.add(clean, corrected, failed);
+    }
+
+    // Records of any shape, decoded one at a time
+    private void decodeEach(MappedByteBuffer records, MappedByteBuffer slots, int slotSize, long[] offsets, long recordLength,
+                            long from, int count, byte[] statuses) {
+        DecoderWorkspace workspace = null;
+        int[] dataCodewords = new int[dataCapacity()];
+        QRPayloadDecoder payloadDecoder = new QRPayloadDecoder();
+        StringBuilder text = new StringBuilder();
+
+        for (int r = 0; r < count; r++) {
+            int position, length;
+            if (offsets == null) {
+                position = (int) (r * recordLength);
+                length = (int) recordLength;
+            } else {
+                position = (int) (offsets[(int) from + r] - offsets[(int) from]) + 2;
+                length = records.getShort(position - 2) & 0xFFFF;
+            }
+
+            int slot = r * slotSize;
+            try {
+                ByteBuffer record = records.slice(position, length);
+                QRBlockStructure structure = QRSymbolDecoder.structureFor(length,
+                        length > 0 ? record.get(0) & 0xFF : 0, length > 1 ? record.get(1) & 0xFF : 0, version, level);
+
+                if (workspace == null || !workspace.isCompatible(GaloisField.GF256, structure.getEcCodewordsPerBlock()))
+                    workspace = new DecoderWorkspace(GaloisField.GF256, structure.getEcCodewordsPerBlock());
+                if (dataCodewords.length != structure.getDataCodewords())
+                    dataCodewords = new int[structure.getDataCodewords()];
+
+                DecodeResult result = ReedSolomonDecoding.decode(record, structure, dataCodewords, workspace);
+                statuses[r] = writeSlot(slots, slot, slotSize, result, dataCodewords, structure.getVersion(), payloadDecoder, text);
+            } catch (RuntimeException e) {
+                slots.put(slot, STATUS_FAILED);
+                statuses[r] = STATUS_FAILED;
+            }
+        }
+    }
+
+    // Fixed size single block records: BATCH_SIZE records at a time go through a CodewordBatch, so that the clean ones
+    // cost only a vectorized syndrome check
+    private void decodeBatched(MappedByteBuffer records, MappedByteBuffer slots, int slotSize, int count, byte[] statuses) {
+        QRBlockStructure structure = QRBlockStructure.of(version, level);
+        int length = structure.getTotalCodewords();
+        int dataLength = structure.getDataCodewords();
+
+        CodewordBatch batch = new CodewordBatch(GaloisField.GF256, length, structure.getEcCodewordsPerBlock(), QRBlockStructure.FCR, BATCH_SIZE);
+        DecoderWorkspace workspace = new DecoderWorkspace(GaloisField.GF256, structure.getEcCodewordsPerBlock());
+        DecodeResult[] results = new DecodeResult[BATCH_SIZE];
+        int[] dataCodewords = new int[dataLength];
+        QRPayloadDecoder payloadDecoder = new QRPayloadDecoder();
+        StringBuilder text = new StringBuilder();
+
+        for (int first = 0; first < count; first += BATCH_SIZE) {
+            int size = Math.min(BATCH_SIZE, count - first);
+            for (int lane = 0; lane < size; lane++) {
+                batch.set(lane, records, (first + lane) * length);
+            }
+            batch.decode(size, results, workspace);
+
+            for (int lane = 0; lane < size; lane++) {
+                int r = first + lane;
+                int slot = r * slotSize;
+                try {
+                    for (int k = 0; k < dataLength; k++) {
+                        dataCodewords[k] = batch.getSymbol(lane, length - 1 - k);
+                    }
+                    statuses[r] = writeSlot(slots, slot, slotSize, results[lane], dataCodewords, version, payloadDecoder, text);
+                } catch (RuntimeException e) {
+                    slots.put(slot, STATUS_FAILED);
+                    statuses[r] = STATUS_FAILED;
+                }
+            }
+        }
+    }
+
+    // Fills the slot of a decoded record and returns its status
+    private static byte writeSlot(MappedByteBuffer slots, int slot, int slotSize, DecodeResult result, int[] dataCodewords, int version,
+                                  QRPayloadDecoder payloadDecoder, StringBuilder text) {
+        if (result.isUncorrectable()) {
+            slots.put(slot, STATUS_FAILED);
+            return STATUS_FAILED;
+        }
+
+        int correctedCodewords = result.getCorrectedSymbols();
+        text.setLength(0);
+        byte[] payload = payloadDecoder.decode(dataCodewords, version, text).toString().getBytes(StandardCharsets.UTF_8);
+
+        // Cannot happen for payloads the data codewords can hold, but a truncated text must not pass as decoded
+        if (payload.length > slotSize - SLOT_HEADER) {
+            slots.put(slot, STATUS_FAILED);
+            return STATUS_FAILED;
+        }
+
+        byte status = correctedCodewords == 0 ? STATUS_CLEAN : STATUS_CORRECTED;
+
+        slots.put(slot, status);
+        slots.putShort(slot + 1, (short) correctedCodewords);
+        slots.putShort(slot + 3, (short) payload.length);
+        slots.put(slot + SLOT_HEADER, payload);
+        return status;
+    }
+
+    public static class Summary {
+        private long clean;
+        private long corrected;
+        private long failed;
+
+        private synchronized void add(long clean, long corrected, long failed) {
+            this.clean += clean;
+            this.corrected += corrected;
+            this.failed += failed;
+        }
+
+        public synchronized long getRecords() {
+            return clean + corrected + failed;
+        }
+
+        public synchronized long getClean() {
+            return clean;
+        }
+
+        public synchronized long getCorrected() {
+            return corrected;
+        }
+
+        public synchronized long getFailed() {
+            return failed;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return "Summary{" +
+                    "records=" + getRecords() +
+                    ", clean=" + clean +
+                    ", corrected=" + corrected +
+                    ", failed=" + failed +
+                    '}';
+        }
+    }
+}
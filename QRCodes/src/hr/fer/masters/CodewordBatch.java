@@ -0,0 +1,136 @@
+package hr.fer.masters;
+
+import java.nio.ByteBuffer;
+
+// Batch of up to capacity same-shape codewords of a field with at most 256 elements, stored structure-of-arrays with
+// symbols[i * stride + lane] the coefficient of x^i of codeword lane. decode checks the syndromes of the whole batch at
+// once, across SIMD lanes when the jdk.incubator.vector module is available with vectors of at least 16 bytes (and
+// -Dqrcodes.vector=false is not set), and only the codewords with a nonzero syndrome go through
+// ReedSolomonDecoding.errorCorrection one by one.
+// Keep one batch per thread and reuse it, like DecoderWorkspace.
+public class CodewordBatch {
+
+    private static final boolean VECTOR = !"false".equals(System.getProperty("qrcodes.vector"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private final GaloisField GF;
+    private final int length;
+    private final int parityCheckSymbols;
+    private final int FCR;
+    private final int capacity;
+
+    private final BatchSyndromes syndromes;
+    private final int stride;
+    private final byte[] symbols;
+    private final byte[] flags;
+
+    public CodewordBatch(GaloisField GF, int length, int parityCheckSymbols, int FCR, int capacity) {
+        if (GF.getOrder() > 256)
+            throw new RuntimeException("Batch decoding needs a field of at most 256 elements");
+
+        this.GF = GF;
+        this.length = length;
+        this.parityCheckSymbols = parityCheckSymbols;
+        this.FCR = FCR;
+        this.capacity = capacity;
+
+        int[] points = new int[parityCheckSymbols];
+        for (int i = 0; i < parityCheckSymbols; i++) {
+            points[i] = GF.exp(i + FCR);
+        }
+        this.syndromes = syndromesFor(GF, points, length);
+
+        int lanes = syndromes.lanes();
+        this.stride = (capacity + lanes - 1) / lanes * lanes;
+        this.symbols = new byte[length * stride];
+        this.flags = new byte[stride];
+    }
+
+    private static BatchSyndromes syndromesFor(GaloisField GF, int[] points, int length) {
+        if (VECTOR && GF.getP() == 2) {
+            try {
+                if (VectorBatchSyndromes.isSupported())
+                    return new VectorBatchSyndromes(GF, points);
+            } catch (LinkageError e) {
+                // Vector API classes not resolvable after all, use the scalar check
+            }
+        }
+        return new ScalarBatchSyndromes(GF, points, length);
+    }
+
+    public GaloisField getGaloisField() {
+        return GF;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getParityCheckSymbols() {
+        return parityCheckSymbols;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    // True if the syndrome check runs on the Vector API
+    public boolean isVectorized() {
+        return syndromes instanceof VectorBatchSyndromes;
+    }
+
+    // Stores codeword[0, length), coefficient i belonging to x^i, in lane
+    public void set(int lane, int[] codeword) {
+        for (int i = 0; i < length; i++) {
+            symbols[i * stride + lane] = (byte) codeword[i];
+        }
+    }
+
+    // Stores the length bytes at codewords[position, position + length) in lane, in block order: the first byte is
+    // the coefficient of x^(length - 1) as in the QR code blocks
+    public void set(int lane, ByteBuffer codewords, int position) {
+        for (int k = 0; k < length; k++) {
+            symbols[(length - 1 - k) * stride + lane] = codewords.get(position + k);
+        }
+    }
+
+    // Copies the codeword in lane to destination[0, length), coefficient i belonging to x^i
+    public void get(int lane, int[] destination) {
+        for (int i = 0; i < length; i++) {
+            destination[i] = symbols[i * stride + lane] & 0xFF;
+        }
+    }
+
+    // Coefficient of x^power of the codeword in lane
+    public int getSymbol(int lane, int power) {
+        return symbols[power * stride + lane] & 0xFF;
+    }
+
+    // Corrects the codewords in lanes [0, count) in place, results[lane] being what errorCorrection returns for them.
+    // The lanes of clean codewords are only reported to the instrumentation as decoded without errors, the others
+    // are timed stage by stage by errorCorrection as usual.
+    public void decode(int count, DecodeResult[] results, DecoderWorkspace workspace) {
+        if (count > capacity)
+            throw new RuntimeException("Batch capacity exceeded");
+        if (!workspace.isCompatible(GF, parityCheckSymbols))
+            throw new RuntimeException("Workspace not compatible");
+
+        syndromes.check(symbols, length, stride, count, flags);
+
+        DecodeInstrumentation instrumentation = ReedSolomonDecoding.getInstrumentation();
+        int[] block = workspace.blockBuffer(length);
+        for (int lane = 0; lane < count; lane++) {
+            if (flags[lane] == 0) {
+                instrumentation.decoded(0);
+                results[lane] = DecodeResult.CLEAN;
+                continue;
+            }
+
+            get(lane, block);
+            DecodeResult result = ReedSolomonDecoding.errorCorrection(GF, block, length, parityCheckSymbols, FCR, workspace);
+            if (!result.isClean() && !result.isUncorrectable())
+                set(lane, block);
+            results[lane] = result;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package hr.fer.masters;
+
+// Hooks ReedSolomonDecoding.errorCorrection calls while decoding, see ReedSolomonDecoding.setInstrumentation.
+// Implementations are called concurrently from every decoding thread and should be cheap; none of the calls allocate.
+public interface DecodeInstrumentation {
+
+    // Does nothing; errorCorrection recognises it and skips taking timestamps altogether
+    DecodeInstrumentation NONE = new DecodeInstrumentation() {
+    };
+
+    // A stage completed in nanos nanoseconds
+    default void stage(DecodeStage stage, long nanos) {
+    }
+
+    // A codeword was decoded; errors is the number of corrected symbols, 0 for a clean codeword
+    default void decoded(int errors) {
+    }
+
+    // stage detected more errors than the code can correct; the codeword was left as received
+    default void uncorrectable(DecodeStage stage) {
+    }
+
+    // Decoding threw cause during stage, which only invalid arguments should make it do
+    default void failed(DecodeStage stage, RuntimeException cause) {
+    }
+
+}
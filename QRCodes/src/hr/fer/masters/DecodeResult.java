@@ -0,0 +1,72 @@
+package hr.fer.masters;
+
+// Outcome of decoding a codeword or a whole symbol. Instances are immutable and the common ones are cached, so
+// returning a result does not allocate.
+public final class DecodeResult {
+
+    public enum Status {
+        // All syndromes were zero, nothing was changed
+        CLEAN,
+        // Errors were found, corrected and the corrected codeword re-verified
+        CORRECTED,
+        // More errors than the code can correct were detected; the codeword is left as received
+        UNCORRECTABLE
+    }
+
+    private static final int CACHED = 4096;
+    private static final DecodeResult[] CORRECTED = new DecodeResult[CACHED];
+
+    public static final DecodeResult CLEAN = new DecodeResult(Status.CLEAN, 0);
+    public static final DecodeResult UNCORRECTABLE = new DecodeResult(Status.UNCORRECTABLE, 0);
+
+    static {
+        CORRECTED[0] = CLEAN;
+        for (int i = 1; i < CACHED; i++) {
+            CORRECTED[i] = new DecodeResult(Status.CORRECTED, i);
+        }
+    }
+
+    private final Status status;
+    private final int correctedSymbols;
+
+    private DecodeResult(Status status, int correctedSymbols) {
+        this.status = status;
+        this.correctedSymbols = correctedSymbols;
+    }
+
+    // CLEAN for 0
+    public static DecodeResult corrected(int correctedSymbols) {
+        if (correctedSymbols < 0)
+            throw new RuntimeException("Negative corrected symbol count");
+        return correctedSymbols < CACHED ? CORRECTED[correctedSymbols] : new DecodeResult(Status.CORRECTED, correctedSymbols);
+    }
+
+    // Result of a symbol made of the two parts: uncorrectable if either is, otherwise the corrected symbols add up
+    public static DecodeResult combine(DecodeResult a, DecodeResult b) {
+        if (a.status == Status.UNCORRECTABLE || b.status == Status.UNCORRECTABLE)
+            return UNCORRECTABLE;
+        return corrected(a.correctedSymbols + b.correctedSymbols);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isClean() {
+        return status == Status.CLEAN;
+    }
+
+    public boolean isUncorrectable() {
+        return status == Status.UNCORRECTABLE;
+    }
+
+    // 0 unless CORRECTED
+    public int getCorrectedSymbols() {
+        return correctedSymbols;
+    }
+
+    @Override
+    public String toString() {
+        return status == Status.CORRECTED ? "CORRECTED(" + correctedSymbols + ")" : status.name();
+    }
+}
@@ -0,0 +1,15 @@
+package hr.fer.masters;
+
+// Stages of ReedSolomonDecoding.errorCorrection in the order they run
+public enum DecodeStage {
+    // Syndromes and the clean codeword check
+    SYNDROMES,
+    // Error locator, combined with the erasure locator when there are erasures
+    LOCATOR,
+    // Chien search for the locator's roots
+    ROOT_SEARCH,
+    // Forney algorithm for the error values
+    MAGNITUDES,
+    // Subtracting the error values from the codeword
+    CORRECTION
+}
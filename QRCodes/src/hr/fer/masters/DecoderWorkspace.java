@@ -0,0 +1,120 @@
+package hr.fer.masters;
+
+// Preallocated scratch state for ReedSolomonDecoding.errorCorrection and the ReedSolomonDecoder implementations; keep
+// one instance per thread and reuse it so that decoding in the steady state does not allocate
+public class DecoderWorkspace {
+
+    private final GaloisField GF;
+    private final int parityCheckSymbols;
+
+    final int[] syndromePoints;
+    final int[] syndromes;
+
+    // ReferenceDecoder iteration state, index myu + 1 for myu = -1, ..., parityCheckSymbols; 2t + 2 polynomials that
+    // the default decoder never touches, so they are only allocated on first use
+    private PolynomialBuffer[] omega;
+    private int[] dmyu;
+    private int[] hmyu;
+
+    // BerlekampMasseyDecoder state: connection polynomial, its copy before the last length change and a temporary
+    final int[] connection;
+    final int[] previousConnection;
+    final int[] connectionCopy;
+
+    // Error locator Lambda(x), its reversal whose roots are alpha^position, and the positions found
+    final PolynomialBuffer locator;
+    final PolynomialBuffer reversedLocator;
+    final int[] errorPositions;
+
+    // Errors-and-erasures decoding: erasure locator Gamma(x), the Forney syndromes S(x) * Gamma(x) mod x^(2t) without
+    // their first erasure count coefficients, the combined locator Lambda(x) * Gamma(x) and per block erasure positions
+    final PolynomialBuffer erasureLocator;
+    final int[] forneySyndromes;
+    final PolynomialBuffer combinedLocator;
+    final int[] erasurePositions;
+
+    // Chien search running terms and their per-step multipliers
+    final int[] chienTerms;
+    final int[] chienSteps;
+
+    // Forney algorithm: error evaluator, formal derivative of the locator and the resulting error magnitudes
+    final PolynomialBuffer evaluator;
+    final PolynomialBuffer locatorDerivative;
+    final int[] errorValues;
+
+    public DecoderWorkspace(GaloisField GF, int parityCheckSymbols) {
+        this.GF = GF;
+        this.parityCheckSymbols = parityCheckSymbols;
+
+        syndromePoints = new int[parityCheckSymbols];
+        syndromes = new int[parityCheckSymbols];
+
+        connection = new int[parityCheckSymbols + 1];
+        previousConnection = new int[parityCheckSymbols + 1];
+        connectionCopy = new int[parityCheckSymbols + 1];
+
+        locator = new PolynomialBuffer(GF, parityCheckSymbols + 2);
+        reversedLocator = new PolynomialBuffer(GF, parityCheckSymbols + 2);
+        errorPositions = new int[parityCheckSymbols + 1];
+
+        erasureLocator = new PolynomialBuffer(GF, parityCheckSymbols + 2);
+        forneySyndromes = new int[parityCheckSymbols];
+        combinedLocator = new PolynomialBuffer(GF, parityCheckSymbols + 2);
+        erasurePositions = new int[parityCheckSymbols];
+
+        chienTerms = new int[parityCheckSymbols + 2];
+        chienSteps = new int[parityCheckSymbols + 2];
+
+        evaluator = new PolynomialBuffer(GF, parityCheckSymbols + 2);
+        locatorDerivative = new PolynomialBuffer(GF, parityCheckSymbols + 2);
+        errorValues = new int[parityCheckSymbols + 1];
+    }
+
+    private void referenceState() {
+        if (omega != null)
+            return;
+
+        omega = new PolynomialBuffer[parityCheckSymbols + 2];
+        for (int i = 0; i < omega.length; i++) {
+            omega[i] = new PolynomialBuffer(GF, parityCheckSymbols + 2);
+        }
+        dmyu = new int[parityCheckSymbols + 2];
+        hmyu = new int[parityCheckSymbols + 2];
+    }
+
+    PolynomialBuffer[] omega() {
+        referenceState();
+        return omega;
+    }
+
+    int[] dmyu() {
+        referenceState();
+        return dmyu;
+    }
+
+    int[] hmyu() {
+        referenceState();
+        return hmyu;
+    }
+
+    // Scratch codeword for de-interleaved blocks, grown on demand
+    private int[] block = new int[0];
+
+    int[] blockBuffer(int length) {
+        if (block.length < length)
+            block = new int[length];
+        return block;
+    }
+
+    public GaloisField getGaloisField() {
+        return GF;
+    }
+
+    public int getParityCheckSymbols() {
+        return parityCheckSymbols;
+    }
+
+    public boolean isCompatible(GaloisField GF, int parityCheckSymbols) {
+        return this.parityCheckSymbols == parityCheckSymbols && this.GF.equals(GF);
+    }
+}
@@ -0,0 +1,168 @@
+package hr.fer.masters;
+
+import java.util.Arrays;
+
+// Stateful decoder for a sequence of received words of one code that change little from one word to the next, e.g.
+// consecutive captures of the same symbol block. Syndromes are linear in the received word, so instead of
+// evaluating every word at all syndrome points the session keeps the previous word and its syndromes and adds
+// delta * alpha^((j + FCR) * i) to syndrome j for every coefficient i that changed, from precomputed columns.
+// The error pattern depends on the syndromes alone: when they equal those of the last decoded word, the last result
+// and its corrections are reused without running the locator, root search and Forney steps again.
+// Columns take length * parityCheckSymbols ints. A session is not thread-safe; keep one per stream.
+public class DecodingSession {
+
+    private final GaloisField GF;
+    private final int length;
+    private final int parityCheckSymbols;
+    private final int FCR;
+    private final DecoderWorkspace workspace;
+
+    // columns[i * parityCheckSymbols + j] = alpha^((j + FCR) * i), the change of syndrome j per unit change of
+    // coefficient i
+    private final int[] columns;
+    private final int[] points;
+
+    // Last received word and its syndromes
+    private final int[] previous;
+    private final int[] syndromes;
+    private boolean primed;
+
+    // Syndromes, result and corrections (positions and values to add) of the last word that went through correction
+    private final int[] decodedSyndromes;
+    private final int[] correctionPositions;
+    private final int[] correctionValues;
+    private int correctionCount;
+    private DecodeResult decodedResult;
+
+    private long words;
+    private long changedSymbols;
+    private long reused;
+
+    public DecodingSession(GaloisField GF, int length, int parityCheckSymbols, int FCR) {
+        if (length >= GF.getOrder())
+            throw new RuntimeException("Codeword length must be less than the field order");
+
+        this.GF = GF;
+        this.length = length;
+        this.parityCheckSymbols = parityCheckSymbols;
+        this.FCR = FCR;
+        this.workspace = new DecoderWorkspace(GF, parityCheckSymbols);
+
+        points = new int[parityCheckSymbols];
+        for (int j = 0; j < parityCheckSymbols; j++) {
+            points[j] = GF.exp(j + FCR);
+        }
+
+        columns = new int[length * parityCheckSymbols];
+        for (int j = 0; j < parityCheckSymbols; j++) {
+            int power = 1;
+            for (int i = 0; i < length; i++) {
+                columns[i * parityCheckSymbols + j] = power;
+                power = GF.mul(power, points[j]);
+            }
+        }
+
+        previous = new int[length];
+        syndromes = new int[parityCheckSymbols];
+        decodedSyndromes = new int[parityCheckSymbols];
+        correctionPositions = new int[parityCheckSymbols];
+        correctionValues = new int[parityCheckSymbols];
+    }
+
+    // Corrects codeword[0, length), coefficient i belonging to x^i, in place, like ReedSolomonDecoding.errorCorrection.
+    // Reused results are not reported to the decode instrumentation.
+    public DecodeResult decode(int[] codeword) {
+        words++;
+        if (!primed) {
+            GF.evaluateAll(codeword, length, points, parityCheckSymbols, syndromes);
+            System.arraycopy(codeword, 0, previous, 0, length);
+            primed = true;
+        } else {
+            updateSyndromes(codeword);
+        }
+
+        if (decodedResult != null && Arrays.equals(syndromes, decodedSyndromes)) {
+            reused++;
+            if (!decodedResult.isUncorrectable()) {
+                for (int k = 0; k < correctionCount; k++) {
+                    codeword[correctionPositions[k]] = GF.add(codeword[correctionPositions[k]], correctionValues[k]);
+                }
+            }
+            return decodedResult;
+        }
+
+        // errorCorrection leaves its own syndromes of the corrected word in the workspace, so it gets a copy
+        System.arraycopy(syndromes, 0, workspace.syndromes, 0, parityCheckSymbols);
+        DecodeResult result = ReedSolomonDecoding.errorCorrectionFromSyndromes(GF, codeword, length, parityCheckSymbols, FCR, workspace);
+
+        correctionCount = 0;
+        if (!result.isClean() && !result.isUncorrectable()) {
+            for (int i = 0; i < length; i++) {
+                if (codeword[i] == previous[i])
+                    continue;
+                correctionPositions[correctionCount] = i;
+                correctionValues[correctionCount++] = GF.subtract(codeword[i], previous[i]);
+            }
+        }
+        System.arraycopy(syndromes, 0, decodedSyndromes, 0, parityCheckSymbols);
+        decodedResult = result;
+        return result;
+    }
+
+    // Adds the contribution of every coefficient that differs from the previous word to the syndromes
+    private void updateSyndromes(int[] codeword) {
+        for (int i = 0; i < length; i++) {
+            int received = codeword[i];
+            if (received == previous[i])
+                continue;
+
+            int delta = GF.subtract(received, previous[i]);
+            previous[i] = received;
+            changedSymbols++;
+
+            int column = i * parityCheckSymbols;
+            for (int j = 0; j < parityCheckSymbols; j++) {
+                syndromes[j] = GF.add(syndromes[j], GF.mul(delta, columns[column + j]));
+            }
+        }
+    }
+
+    // Forgets the previous word; the next one has its syndromes computed from scratch
+    public void reset() {
+        primed = false;
+        decodedResult = null;
+        correctionCount = 0;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getParityCheckSymbols() {
+        return parityCheckSymbols;
+    }
+
+    // Words decoded since the session was created
+    public long getWordCount() {
+        return words;
+    }
+
+    // Coefficients that differed from the previous word, each costing parityCheckSymbols multiplications
+    public long getChangedSymbolCount() {
+        return changedSymbols;
+    }
+
+    // Words whose syndromes equalled those of the last corrected word, decoded without locator solving
+    public long getReusedCount() {
+        return reused;
+    }
+
+    @Override
+    public String toString() {
+        return "DecodingSession{" +
+                "words=" + words +
+                ", changedSymbols=" + changedSymbols +
+                ", reused=" + reused +
+                '}';
+    }
+}
@@ -0,0 +1,5 @@
+package hr.fer.masters;
+
+public enum ErrorCorrectionLevel {
+    L, M, Q, H
+}
@@ -0,0 +1,50 @@
+package hr.fer.masters;
+
+// Arithmetic on integer representations of GF(q=p^n) elements; implementations must not allocate
+public interface FieldArithmetic {
+
+    int add(int a, int b);
+
+    int subtract(int a, int b);
+
+    int negate(int a);
+
+    int mul(int a, int b);
+
+    int div(int a, int b);
+
+    int inv(int a);
+
+    int pow(int a, int exponent);
+
+    // alpha^power
+    int exp(int power);
+
+    // Power of alpha for a nonzero element
+    int log(int a);
+
+    // Horner's rule for coefficients[0, length), lowest power first, at point
+    default int evaluate(int[] coefficients, int length, int point) {
+        int eval = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            eval = add(mul(eval, point), coefficients[i]);
+        }
+        return eval;
+    }
+
+    // Horner's rule for all points at once in a single pass over coefficients[0, length), each coefficient being
+    // loaded only once; out[k] = sum(coefficients[i] * points[k]^i) for k < pointCount
+    default void evaluateAll(int[] coefficients, int length, int[] points, int pointCount, int[] out) {
+        for (int k = 0; k < pointCount; k++) {
+            out[k] = 0;
+        }
+
+        for (int i = length - 1; i >= 0; i--) {
+            int coefficient = coefficients[i];
+            for (int k = 0; k < pointCount; k++) {
+                out[k] = add(mul(out[k], points[k]), coefficient);
+            }
+        }
+    }
+
+}
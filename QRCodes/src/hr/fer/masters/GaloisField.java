@@ -1,53 +1,68 @@
 package hr.fer.masters;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
-public class GaloisField {
+// Immutable GF(p^n). Instances come from a process wide registry keyed by (p, n, primitive polynomial), so the
+// log-antilog and product tables of every field are built once and shared by all threads without synchronization.
+public final class GaloisField implements FieldArithmetic {
 
-    public static final GaloisField GF256 = new GaloisField(Polynomial.QRCodePrimitive, 2, 8);
+    private static final ConcurrentHashMap<Key, GaloisField> registry = new ConcurrentHashMap<>();
 
-    private Polynomial primitivePolynomial;
-    private int p;
-    private int n;
+    public static final GaloisField GF256 = of(Polynomial.QRCodePrimitive, 2, 8);
 
-    // Log-antilog table
-    private HashMap<Integer, Integer> powerToIntegerTable;
-    private HashMap<Integer, Integer> integerToPowerTable;
+    // For long Reed-Solomon codes of up to 65535 symbols, e.g. archival payload protection. Its 512 KB of tables are
+    // built on first use rather than with GF256, so processes that only decode QR codes never pay for them.
+    public static GaloisField gf65536() {
+        return GF65536Holder.GF65536;
+    }
 
-    private int primitivePolynomialInt;
+    private static final class GF65536Holder {
+        private static final GaloisField GF65536 = of(Polynomial.GF65536Primitive, 2, 16);
+    }
 
-    // GF(q) where q = p^n; p must be a prime number for this to make sense
-    public GaloisField(Polynomial primitivePolynomial, int p, int n) {
-        this.primitivePolynomial = primitivePolynomial;
-        this.p = p;
-        this.n = n;
+    private final Polynomial primitivePolynomial;
+    private final int p;
+    private final int n;
+    private final int q;
 
-        powerToIntegerTable = new HashMap<>();
-        integerToPowerTable = new HashMap<>();
+    // Binary fields get the XOR based engine, odd characteristic the generic digit-wise one
+    private final FieldArithmetic arithmetic;
 
-        generateLogAntilogTable();
+    private final int primitivePolynomialInt;
 
-        this.primitivePolynomialInt = this.toIntegerRepresentation(primitivePolynomial);
+    // Bit-packed primitive polynomial for p = 2, null otherwise
+    private final BinaryPolynomial binaryPrimitivePolynomial;
+
+    // GF(q) where q = p^n; p must be a prime number for this to make sense. Returns the registered instance if the
+    // field has been requested before, otherwise builds its tables and registers it.
+    public static GaloisField of(Polynomial primitivePolynomial, int p, int n) {
+        if (primitivePolynomial.getDegree() != n)
+            throw new RuntimeException("Primitive polynomial must be of degree " + n);
+
+        return registry.computeIfAbsent(new Key(primitivePolynomial, p, n),
+                key -> new GaloisField(key.primitivePolynomial, key.p, key.n));
     }
 
-    private void generateLogAntilogTable() {
-        Polynomial poly = new Polynomial(new int[]{1});
-        Polynomial alpha = new Polynomial(new int[]{0, 1});
+    // Number of distinct fields built so far
+    public static int registeredFields() {
+        return registry.size();
+    }
 
-        int intPoly = this.toIntegerRepresentation(poly);
-        powerToIntegerTable.put(0, intPoly);
-        integerToPowerTable.put(intPoly, 0);
+    private GaloisField(Polynomial primitivePolynomial, int p, int n) {
+        this.primitivePolynomial = primitivePolynomial;
+        this.p = p;
+        this.n = n;
+        this.q = (int) Math.pow(p, n);
 
-        for (int i = 1; i < Math.pow(p, n) - 1; i++) {
-            poly = this.multiply(poly, alpha);
+        this.primitivePolynomialInt = this.toIntegerRepresentation(primitivePolynomial);
+        this.binaryPrimitivePolynomial = p == 2 ? BinaryPolynomial.of(primitivePolynomialInt) : null;
 
-            intPoly = this.toIntegerRepresentation(poly);
-            powerToIntegerTable.put(i, intPoly);
-            integerToPowerTable.put(intPoly, i);
-        }
+        this.arithmetic = p == 2
+                ? new BinaryFieldArithmetic(primitivePolynomialInt, n)
+                : new PrimeFieldArithmetic(primitivePolynomialInt, p, n);
     }
 
     private Polynomial moduloCoef(Polynomial poly) {
@@ -60,6 +75,25 @@ public class GaloisField {
         return new Polynomial(poly2);
     }
 
+    // Integer representation of an arbitrary polynomial reduced into the field; for p = 2 the reduction is carry-less
+    // on the bit-packed polynomial, in a single long unless its degree is 64 or more
+    private int toElement(Polynomial poly) {
+        if (p == 2) {
+            if (poly.getDegree() >= 64)
+                return (int) BinaryPolynomial.mod(BinaryPolynomial.of(poly), binaryPrimitivePolynomial).toLong();
+
+            long bits = 0;
+            for (int i = 0; i <= poly.getDegree(); i++) {
+                bits |= (long) (poly.getCoefficient(i) & 1) << i;
+            }
+            return (int) BinaryPolynomial.mod(bits, primitivePolynomialInt);
+        }
+
+        if (poly.getDegree() >= n)
+            poly = Polynomial.divide(poly, primitivePolynomial).getRemainder();
+        return toIntegerRepresentation(moduloCoef(poly));
+    }
+
     public int getP() {
         return p;
     }
@@ -68,6 +102,11 @@ public class GaloisField {
         return n;
     }
 
+    // Number of elements in the field, q = p^n
+    public int getOrder() {
+        return q;
+    }
+
     public Polynomial getPrimitivePolynomial() {
         return primitivePolynomial;
     }
@@ -76,45 +115,99 @@ public class GaloisField {
         return primitivePolynomialInt;
     }
 
-    public Polynomial add(Polynomial p1, Polynomial p2) {
-        return moduloCoef(Polynomial.add(p1, p2));
+    public FieldArithmetic getArithmetic() {
+        return arithmetic;
     }
 
-    public Polynomial subtract(Polynomial p1, Polynomial p2) {
-        return moduloCoef(Polynomial.subtract(p1, p2));
+    // Arithmetic on integer representations of field elements; none of these allocate
+
+    @Override
+    public int add(int a, int b) {
+        return arithmetic.add(a, b);
     }
 
-    public Polynomial multiply(Polynomial p1, Polynomial p2) {
-        return moduloCoef(Polynomial.divide(Polynomial.multiply(p1, p2), primitivePolynomial).getRemainder());
+    @Override
+    public int subtract(int a, int b) {
+        return arithmetic.subtract(a, b);
     }
 
-    public Polynomial inverse(Polynomial p1) {
-        Polynomial t = new Polynomial(new int[] {0});
-        Polynomial newt = new Polynomial(new int[] {1});
-        Polynomial r = this.primitivePolynomial;
-        Polynomial newr = p1;
+    @Override
+    public int negate(int a) {
+        return arithmetic.negate(a);
+    }
 
-        while(!newr.equals(Polynomial.ZERO)) {
-            Polynomial quotient = moduloCoef(Polynomial.divide(r, newr).getResult());
+    @Override
+    public int mul(int a, int b) {
+        return arithmetic.mul(a, b);
+    }
 
-            Polynomial oldR = r;
-            r = newr;
-            newr = moduloCoef(Polynomial.subtract(oldR, Polynomial.multiply(quotient, newr)));
+    @Override
+    public int div(int a, int b) {
+        return arithmetic.div(a, b);
+    }
 
-            Polynomial oldT = t;
-            t = newt;
-            newt = moduloCoef(Polynomial.subtract(oldT, Polynomial.multiply(quotient, newt)));
-        }
+    @Override
+    public int inv(int a) {
+        return arithmetic.inv(a);
+    }
 
-        Polynomial result = Polynomial.multiply(Polynomial.divide(Polynomial.ONE, r).getResult(), t);
-        return moduloCoef(Polynomial.divide(result, primitivePolynomial).getRemainder());
+    @Override
+    public int pow(int a, int exponent) {
+        return arithmetic.pow(a, exponent);
+    }
+
+    @Override
+    public int exp(int power) {
+        return arithmetic.exp(power);
+    }
+
+    @Override
+    public int log(int a) {
+        return arithmetic.log(a);
+    }
+
+    @Override
+    public int evaluate(int[] coefficients, int length, int point) {
+        return arithmetic.evaluate(coefficients, length, point);
+    }
+
+    @Override
+    public void evaluateAll(int[] coefficients, int length, int[] points, int pointCount, int[] out) {
+        arithmetic.evaluateAll(coefficients, length, points, pointCount, out);
+    }
+
+    // Polynomial representation arithmetic, kept for compatibility on top of the integer tables
+
+    public Polynomial add(Polynomial p1, Polynomial p2) {
+        return toPolynomialRepresentation(add(toElement(p1), toElement(p2)));
+    }
+
+    public Polynomial subtract(Polynomial p1, Polynomial p2) {
+        return toPolynomialRepresentation(subtract(toElement(p1), toElement(p2)));
+    }
+
+    public Polynomial multiply(Polynomial p1, Polynomial p2) {
+        return toPolynomialRepresentation(mul(toElement(p1), toElement(p2)));
+    }
+
+    public Polynomial inverse(Polynomial p1) {
+        int a = toElement(p1);
+        return a == 0 ? Polynomial.ZERO : toPolynomialRepresentation(inv(a));
     }
 
     public Polynomial divide(Polynomial p1, Polynomial p2) {
-        return moduloCoef(Polynomial.divide(this.multiply(p1, this.inverse(p2)), primitivePolynomial).getRemainder());
+        return toPolynomialRepresentation(div(toElement(p1), toElement(p2)));
     }
 
     public int toIntegerRepresentation(Polynomial poly) {
+        if (p == 2) {
+            int a = 0;
+            for (int i = 0; i <= poly.getDegree(); i++) {
+                a += poly.getCoefficient(i) << i;
+            }
+            return a;
+        }
+
         int a = 0;
         int pPower = 1;
         for(int i = 0; i <= poly.getDegree(); i++) {
@@ -125,6 +218,9 @@ public class GaloisField {
     }
 
     public Polynomial toPolynomialRepresentation(int integer) {
+        if (p == 2 && integer >= 0)
+            return BinaryPolynomial.of(integer).toPolynomial();
+
         List<Integer> coefficients = new ArrayList<>();
 
         while (integer >= this.p) {
@@ -142,11 +238,11 @@ public class GaloisField {
     }
 
     public int toIntegerRepresentation(int powerOfAlpha) {
-        return powerToIntegerTable.get(powerOfAlpha % (int)(Math.pow(p, n) - 1));
+        return exp(powerOfAlpha);
     }
 
     public int toPowerRepresentation(int integer) {
-        return integerToPowerTable.get(integer);
+        return log(integer);
     }
 
     @Override
@@ -168,9 +264,33 @@ public class GaloisField {
                 "primitivePolynomial=" + primitivePolynomial + "\n" +
                 ", p=" + p + "\n" +
                 ", n=" + n + "\n" +
-                ", powerToIntegerTable=" + powerToIntegerTable + "\n" +
-                ", integerToPowerTable=" + integerToPowerTable + "\n" +
+                ", arithmetic=" + arithmetic + "\n" +
                 ", primitivePolynomialInt=" + primitivePolynomialInt + "\n" +
                 '}';
     }
+
+    private static final class Key {
+        private final Polynomial primitivePolynomial;
+        private final int p;
+        private final int n;
+
+        private Key(Polynomial primitivePolynomial, int p, int n) {
+            this.primitivePolynomial = new Polynomial(primitivePolynomial);
+            this.p = p;
+            this.n = n;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return p == that.p && n == that.n && primitivePolynomial.equals(that.primitivePolynomial);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(primitivePolynomial, p, n);
+        }
+    }
 }
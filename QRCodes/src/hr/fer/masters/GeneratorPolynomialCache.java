@@ -0,0 +1,64 @@
+package hr.fer.masters;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Thread-safe, lazily populated cache of Reed-Solomon generator polynomials keyed by (field, parity check symbols, FCR).
+// Only the coefficient arrays are cached and they never leave the package: get hands out a copy, the encoder reads the
+// shared array through coefficients.
+public class GeneratorPolynomialCache {
+
+    // Error correction codewords per block used by QR code versions 1 - 40 at all error correction levels
+    public static final int[] QR_EC_CODEWORDS_PER_BLOCK = {7, 10, 13, 15, 16, 17, 18, 20, 22, 24, 26, 28, 30};
+
+    private static final ConcurrentHashMap<Key, int[]> cache = new ConcurrentHashMap<>();
+
+    static {
+        for (int parityCheckSymbols : QR_EC_CODEWORDS_PER_BLOCK) {
+            coefficients(GaloisField.GF256, parityCheckSymbols, 0);
+        }
+    }
+
+    public static MessagePolynomial get(GaloisField GF, int parityCheckSymbols, int FCR) {
+        return new MessagePolynomial(GF, coefficients(GF, parityCheckSymbols, FCR));
+    }
+
+    // The cached coefficients, lowest power first, parityCheckSymbols + 1 of them; callers must not modify the array
+    static int[] coefficients(GaloisField GF, int parityCheckSymbols, int FCR) {
+        return cache.computeIfAbsent(new Key(GF, parityCheckSymbols, FCR), key -> {
+            MessagePolynomial generator = ReedSolomonDecoding.calculateGeneratorPolynomial(GF, parityCheckSymbols, FCR);
+            int[] coefficients = new int[generator.getDegree() + 1];
+            generator.copyCoefficients(coefficients);
+            return coefficients;
+        });
+    }
+
+    public static int size() {
+        return cache.size();
+    }
+
+    private static final class Key {
+        private final GaloisField GF;
+        private final int parityCheckSymbols;
+        private final int FCR;
+
+        private Key(GaloisField GF, int parityCheckSymbols, int FCR) {
+            this.GF = GF;
+            this.parityCheckSymbols = parityCheckSymbols;
+            this.FCR = FCR;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return parityCheckSymbols == that.parityCheckSymbols && FCR == that.FCR && GF.equals(that.GF);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(GF, parityCheckSymbols, FCR);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package hr.fer.masters;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Concurrent HDR-style histogram of non-negative long values. Values below 2^subBucketBits are counted exactly, larger
+// ones in buckets whose width is a power of two with 2^(subBucketBits - 1) linear sub-buckets each, so every recorded
+// value is known to a relative precision of 2^-(subBucketBits - 1) whatever its magnitude; 7 bits keep it under 1.6%.
+public class Histogram {
+
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final int subBucketHalfCount;
+
+    private final AtomicLongArray counts;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        this(7);
+    }
+
+    public Histogram(int subBucketBits) {
+        if (subBucketBits < 1 || subBucketBits > 16)
+            throw new RuntimeException("Sub-bucket bits must be between 1 and 16");
+
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.subBucketHalfCount = subBucketCount / 2;
+        this.counts = new AtomicLongArray(subBucketCount + (64 - subBucketBits) * subBucketHalfCount);
+    }
+
+    // Bucket index of value; a value at or above 2^subBucketBits with its highest bit at h is shifted right by
+    // h - subBucketBits + 1 into the upper half of the sub-bucket range
+    private int index(long value) {
+        if (value < subBucketCount)
+            return (int) value;
+
+        int shift = 64 - Long.numberOfLeadingZeros(value) - subBucketBits;
+        return subBucketCount + (shift - 1) * subBucketHalfCount + (int) (value >>> shift) - subBucketHalfCount;
+    }
+
+    // Smallest value counted in bucket index
+    private long lowestValue(int index) {
+        if (index < subBucketCount)
+            return index;
+
+        int k = index - subBucketCount;
+        int shift = k / subBucketHalfCount + 1;
+        return (long) (k % subBucketHalfCount + subBucketHalfCount) << shift;
+    }
+
+    // Largest value counted in bucket index
+    private long highestValue(int index) {
+        if (index < subBucketCount)
+            return index;
+        int shift = (index - subBucketCount) / subBucketHalfCount + 1;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+
+        counts.incrementAndGet(index(value));
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) getTotal() / n;
+    }
+
+    // Highest value equivalent to the one at the given percentile (0 - 100), capped at the maximum recorded
+    public long getValueAtPercentile(double percentile) {
+        long target = Math.max((long) Math.ceil(getCount() * percentile / 100.0), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target)
+                return Math.min(highestValue(i), getMax());
+        }
+        return getMax();
+    }
+
+    // Moves everything recorded so far into a new histogram and leaves this one empty, so that intervals can be
+    // exported while recording goes on; a bucket count recorded concurrently ends up in exactly one of the two
+    public Histogram snapshotAndReset() {
+        Histogram snapshot = new Histogram(subBucketBits);
+        long n = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long c = counts.getAndSet(i, 0);
+            if (c != 0) {
+                snapshot.counts.set(i, c);
+                n += c;
+            }
+        }
+        snapshot.count.add(n);
+        count.add(-n);
+
+        long sum = total.sumThenReset();
+        snapshot.total.add(sum);
+        snapshot.max.accumulate(max.getThenReset());
+        return snapshot;
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+                getCount(), getMean(), getValueAtPercentile(50), getValueAtPercentile(90), getValueAtPercentile(99),
+                getValueAtPercentile(99.9), getMax());
+    }
+}
@@ -0,0 +1,127 @@
+package hr.fer.masters;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// DecodeInstrumentation aggregating per stage nanosecond timings and corrected error counts into Histograms; safe to
+// share between all decoding threads. snapshotAndReset exports an interval and starts the next one.
+public class HistogramInstrumentation implements DecodeInstrumentation {
+
+    private static final DecodeStage[] STAGES = DecodeStage.values();
+
+    private final Histogram[] stageNanos;
+    private final Histogram errors;
+    private final LongAdder[] uncorrectable;
+    private final LongAdder[] failures;
+
+    public HistogramInstrumentation() {
+        this(new Histogram[STAGES.length], new Histogram(), new LongAdder[STAGES.length], new LongAdder[STAGES.length]);
+        for (int i = 0; i < STAGES.length; i++) {
+            stageNanos[i] = new Histogram();
+            uncorrectable[i] = new LongAdder();
+            failures[i] = new LongAdder();
+        }
+    }
+
+    private HistogramInstrumentation(Histogram[] stageNanos, Histogram errors, LongAdder[] uncorrectable, LongAdder[] failures) {
+        this.stageNanos = stageNanos;
+        this.errors = errors;
+        this.uncorrectable = uncorrectable;
+        this.failures = failures;
+    }
+
+    @Override
+    public void stage(DecodeStage stage, long nanos) {
+        stageNanos[stage.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void decoded(int errors) {
+        this.errors.record(errors);
+    }
+
+    @Override
+    public void uncorrectable(DecodeStage stage) {
+        uncorrectable[stage.ordinal()].increment();
+    }
+
+    @Override
+    public void failed(DecodeStage stage, RuntimeException cause) {
+        failures[stage.ordinal()].increment();
+    }
+
+    public Histogram getStageNanos(DecodeStage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    // Corrected symbols per decoded codeword, 0 for clean ones
+    public Histogram getErrors() {
+        return errors;
+    }
+
+    // Codewords with more errors than the code can correct, by the stage that found out
+    public long getUncorrectable(DecodeStage stage) {
+        return uncorrectable[stage.ordinal()].sum();
+    }
+
+    public long getUncorrectable() {
+        return sum(uncorrectable);
+    }
+
+    // Decodings that threw, by the stage they threw in
+    public long getFailures(DecodeStage stage) {
+        return failures[stage.ordinal()].sum();
+    }
+
+    public long getFailures() {
+        return sum(failures);
+    }
+
+    private static long sum(LongAdder[] counters) {
+        long sum = 0;
+        for (LongAdder counter : counters) {
+            sum += counter.sum();
+        }
+        return sum;
+    }
+
+    // Moves everything recorded so far into a new instance, leaving this one empty
+    public HistogramInstrumentation snapshotAndReset() {
+        Histogram[] stageSnapshots = new Histogram[STAGES.length];
+        LongAdder[] uncorrectableSnapshots = new LongAdder[STAGES.length];
+        LongAdder[] failureSnapshots = new LongAdder[STAGES.length];
+        for (int i = 0; i < STAGES.length; i++) {
+            stageSnapshots[i] = stageNanos[i].snapshotAndReset();
+            uncorrectableSnapshots[i] = new LongAdder();
+            uncorrectableSnapshots[i].add(uncorrectable[i].sumThenReset());
+            failureSnapshots[i] = new LongAdder();
+            failureSnapshots[i].add(failures[i].sumThenReset());
+        }
+        return new HistogramInstrumentation(stageSnapshots, errors.snapshotAndReset(), uncorrectableSnapshots, failureSnapshots);
+    }
+
+    public void reset() {
+        for (int i = 0; i < STAGES.length; i++) {
+            stageNanos[i].reset();
+            uncorrectable[i].reset();
+            failures[i].reset();
+        }
+        errors.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("errors: ").append(errors).append(", uncorrectable=").append(getUncorrectable())
+                .append(", failures=").append(getFailures());
+        for (DecodeStage stage : STAGES) {
+            sb.append(System.lineSeparator()).append(stage.name().toLowerCase()).append(" ns: ").append(getStageNanos(stage));
+            long uncorrectable = getUncorrectable(stage);
+            if (uncorrectable != 0)
+                sb.append(", uncorrectable=").append(uncorrectable);
+            long failed = getFailures(stage);
+            if (failed != 0)
+                sb.append(", failures=").append(failed);
+        }
+        return sb.toString();
+    }
+}
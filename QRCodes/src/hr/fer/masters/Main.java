@@ -1,65 +1,119 @@
 package hr.fer.masters;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Scanner;
 
 public class Main {
 
     // 0100000001110101000101010010001011010100001101101111011001000110010100000001011101011110110001101010100100000000101100110010001110001001010001100001100010111110110101101100010110100101000111000110100100011100
-    public static void main(String[] args) {
-        Scanner sc = new Scanner(System.in);
-        String QRBits = sc.nextLine();
-        sc.close();
+    // Arguments:
+    //   --version 1-40 --ecc L|M|Q|H   symbol version and error correction level; without them the input is taken to be
+    //                                  a single version 1 block whose EC codeword count follows from the character count
+    //   --batch                        decode symbols until EOF instead of a single line, stats go to stderr
+    //   --input FILE                   read from FILE instead of stdin (batch mode and raw format)
+    //   --format text|framed|raw       '0'/'1' lines, 2 byte length prefixed codeword frames (batch mode) or raw
+    //                                  codeword bytes, back to back records of the given version and level in batch
+    //                                  mode; a raw --input FILE is memory-mapped
+    //   --bulk OUTPUT                  decode a raw or framed --input FILE archive into fixed size status and payload
+    //                                  slots in OUTPUT, see BulkDecoder; --chunk N records per parallel chunk. Raw
+    //                                  single block records are checked in batches, on SIMD lanes when the JVM runs
+    //                                  with --add-modules jdk.incubator.vector (see CodewordBatch)
+    //   --threads N, --queue N         decoding threads and maximum symbols in flight (batch mode)
+    //   --stats-interval N             print stats every N symbols, 0 only at the end (batch mode)
+    //   --stage-stats                  time every error correction stage and print the histograms with the stats
+    //                                  (batch and bulk mode)
+    //   --cache-bytes N                cache decoded payloads of repeated symbols in at most N bytes of heap, LRU
+    //                                  evicted, N at least 18084, see PayloadCache (batch mode only)
+    public static void main(String[] args) throws IOException {
+        int version = 1;
+        ErrorCorrectionLevel level = null;
+        boolean batch = false;
+        String input = null;
+        StreamingDecoder.Format format = StreamingDecoder.Format.TEXT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queue = 1024;
+        int statsInterval = 10000;
+        String bulkOutput = null;
+        int chunk = 65536;
+        HistogramInstrumentation stageStats = null;
+        Long cacheBytes = null;
 
-        if(!QRBits.startsWith("0100") || QRBits.length()/8 != 26) {
-            System.out.println("Not in byte format or not version 1");
-        }
-
-        int dataLen = 2;
-        int pow2 = 1;
-        for (int i = 7; i >= 0; i--) {
-            if(QRBits.charAt(i + 4) == '1')
-                dataLen += pow2;
-            pow2 *= 2;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--version": version = Integer.parseInt(args[++i]); break;
+                case "--ecc": level = ErrorCorrectionLevel.valueOf(args[++i]); break;
+                case "--batch": batch = true; break;
+                case "--input": input = args[++i]; break;
+                case "--format": format = StreamingDecoder.Format.valueOf(args[++i].toUpperCase()); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--queue": queue = Integer.parseInt(args[++i]); break;
+                case "--stats-interval": statsInterval = Integer.parseInt(args[++i]); break;
+                case "--bulk": bulkOutput = args[++i]; break;
+                case "--chunk": chunk = Integer.parseInt(args[++i]); break;
+                case "--stage-stats": stageStats = new HistogramInstrumentation(); break;
+                case "--cache-bytes": cacheBytes = Long.parseLong(args[++i]); break;
+                default: throw new RuntimeException("Unknown argument " + args[i]);
+            }
         }
 
-        int len = QRBits.length() / 8;
+        if (cacheBytes != null && (!batch || bulkOutput != null))
+            throw new RuntimeException("--cache-bytes only applies to --batch decoding");
+        if (stageStats != null)
+            ReedSolomonDecoding.setInstrumentation(stageStats);
 
-        int[] msgCoefficients = new int[len];
-        int QRPointer = 0;
-        for (int i = len - 1; i >= 0; i--) {
-            int[] coefficients = new int[8];
-            for (int j = coefficients.length - 1; j >= 0; j--, QRPointer++) {
-                if(QRBits.charAt(QRPointer) == '1')
-                    coefficients[j] = 1;
-            }
+        if (bulkOutput != null) {
+            if (input == null || format == StreamingDecoder.Format.TEXT)
+                throw new RuntimeException("Bulk decoding needs a raw or framed --input FILE");
 
-            msgCoefficients[i] = GaloisField.GF256.toIntegerRepresentation(new Polynomial(coefficients));
+            BulkDecoder decoder = new BulkDecoder(version, level, threads, chunk);
+            long start = System.nanoTime();
+            BulkDecoder.Summary summary = decoder.decode(Path.of(input),
+                    format == StreamingDecoder.Format.RAW ? BulkDecoder.RecordFormat.FIXED : BulkDecoder.RecordFormat.LENGTH_PREFIXED,
+                    Path.of(bulkOutput));
+            System.err.printf("%s in %.1f ms%n", summary, (System.nanoTime() - start) / 1e6);
+            if (stageStats != null)
+                System.err.println(stageStats);
+            return;
         }
 
-        MessagePolynomial received = new MessagePolynomial(GaloisField.GF256, msgCoefficients);
-        MessagePolynomial corrected = ReedSolomonDecoding.errorCorrection(GaloisField.GF256, received, len - dataLen, 0);
+        if (batch) {
+            StreamingDecoder decoder = new StreamingDecoder(version, level, threads, queue, statsInterval);
+            decoder.setStageStats(stageStats);
+            if (cacheBytes != null)
+                decoder.setPayloadCache(new PayloadCache(cacheBytes));
+            if (format == StreamingDecoder.Format.RAW && input != null) {
+                decoder.run(QRSymbolDecoder.map(Path.of(input)), System.out, System.err);
+                return;
+            }
 
-        int[] messageBits = new int[dataLen * 8];
-        for (int i = 0; i < dataLen; i++) {
-            Polynomial poly = GaloisField.GF256.toPolynomialRepresentation(corrected.getCoefficient(len - 1 - i));
-            for (int j = poly.getDegree(); j >= 0; j--) {
-                messageBits[i * 8 + (7 - j)] = poly.getCoefficient(j);
+            try (InputStream in = input == null ? System.in : new FileInputStream(input)) {
+                decoder.run(in, format, System.out, System.err);
             }
+            return;
         }
 
-        StringBuilder sb = new StringBuilder();
-        int messageBitsPointer = 12;
-        for (int i = 0; i < dataLen - 2; i++) {
-            int asciiCode = 0;
-            pow2 = 128;
-            for (int j = 0; j < 8; j++, messageBitsPointer++) {
-                asciiCode += pow2 * messageBits[messageBitsPointer];
-                pow2 /= 2;
+        if (format == StreamingDecoder.Format.RAW) {
+            ByteBuffer codewords = input == null ? ByteBuffer.wrap(System.in.readAllBytes()) : QRSymbolDecoder.map(Path.of(input));
+            try {
+                System.out.println(QRSymbolDecoder.decode(codewords, version, level));
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
             }
-
-            sb.append(Character.toString((char)asciiCode));
+            return;
         }
 
-        System.out.println(sb.toString());
+        Scanner sc = new Scanner(System.in);
+        String QRBits = sc.nextLine();
+        sc.close();
+
+        try {
+            System.out.println(QRSymbolDecoder.decode(QRSymbolDecoder.parseBits(QRBits), version, level));
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
     }
 }
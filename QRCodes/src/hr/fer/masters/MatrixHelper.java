@@ -2,44 +2,26 @@ package hr.fer.masters;
 
 public class MatrixHelper {
 
+    // Computed by Gaussian elimination on a copy of the matrix, O(n^3)
     public static int determinant(GaloisField GF, int[][] matrix) {
         if(matrix.length != matrix[0].length)
             throw new RuntimeException("Not a square matrix");
 
-        if(matrix.length == 2) {
-            return GF.toIntegerRepresentation(GF.subtract(
-                    GF.multiply(
-                            GF.toPolynomialRepresentation(matrix[0][0]),
-                            GF.toPolynomialRepresentation(matrix[1][1])
-                    ),
-                    GF.multiply(
-                            GF.toPolynomialRepresentation(matrix[0][1]),
-                            GF.toPolynomialRepresentation(matrix[1][0])
-                    )
-            ));
-        } else if(matrix.length == 1) {
-            return matrix[0][0];
-        }
+        int[][] a = copy(matrix);
+        int determinant = 1;
 
-        int determinant = 0;
-        for(int i = 0; i < matrix.length; i++) {
-            int[][] newMatrix = new int[matrix.length - 1][matrix.length - 1];
-            for(int a = 0; a < matrix.length; a++) {
-                for(int b = 0, pointerColumn = 0; b < matrix.length; b++, pointerColumn++) {
-                    if (pointerColumn == i)
-                        pointerColumn++;
+        for (int col = 0; col < a.length; col++) {
+            int pivot = findPivot(a, col);
+            if (pivot < 0)
+                return 0;
 
-                    newMatrix[a][b] = matrix[a + 1][pointerColumn];
-                }
+            if (pivot != col) {
+                swapRows(a, pivot, col);
+                determinant = GF.negate(determinant);
             }
 
-            determinant = GF.toIntegerRepresentation(GF.add(
-                    GF.toPolynomialRepresentation(determinant),
-                    GF.multiply(
-                            GF.toPolynomialRepresentation(matrix[0][i]),
-                            GF.toPolynomialRepresentation(determinant(GF, newMatrix))
-                    )
-            ));
+            determinant = GF.mul(determinant, a[col][col]);
+            eliminateBelow(GF, a, col);
         }
 
         return determinant;
@@ -50,23 +32,84 @@ public class MatrixHelper {
         if(a.length != a[0].length)
             throw new RuntimeException("Not a square matrix");
 
-        int[] solutions = new int[a.length];
+        int[] solutions = b.clone();
+        if (!solveInPlace(GF, copy(a), solutions))
+            throw new RuntimeException("Singular matrix");
+
+        return solutions;
+    }
+
+    // Gauss-Jordan elimination of Ax = b over GF in O(n^3) without allocating; a is destroyed and b is replaced by
+    // the solution. Returns false if a is singular, in which case the contents of a and b are undefined.
+    public static boolean solveInPlace(GaloisField GF, int[][] a, int[] b) {
+        int n = b.length;
 
-        int detA = determinant(GF, a);
-        for (int i = 0; i < a.length; i++) {
-            int[][] newA = new int[a.length][a.length];
+        for (int col = 0; col < n; col++) {
+            int pivot = findPivot(a, col);
+            if (pivot < 0)
+                return false;
 
-            for (int j = 0; j < a.length; j++) {
-                for (int k = 0; k < a.length; k++) {
-                    newA[j][k] = k == i ? b[j] : a[j][k];
+            if (pivot != col) {
+                swapRows(a, pivot, col);
+                int tmp = b[pivot];
+                b[pivot] = b[col];
+                b[col] = tmp;
+            }
+
+            int pivotInverse = GF.inv(a[col][col]);
+            for (int k = col; k < n; k++) {
+                a[col][k] = GF.mul(a[col][k], pivotInverse);
+            }
+            b[col] = GF.mul(b[col], pivotInverse);
+
+            for (int row = 0; row < n; row++) {
+                int factor = a[row][col];
+                if (row == col || factor == 0)
+                    continue;
+
+                for (int k = col; k < n; k++) {
+                    a[row][k] = GF.subtract(a[row][k], GF.mul(factor, a[col][k]));
                 }
+                b[row] = GF.subtract(b[row], GF.mul(factor, b[col]));
             }
+        }
 
-            int detNewA = determinant(GF, newA);
-            solutions[i] = GF.toIntegerRepresentation(GF.divide(GF.toPolynomialRepresentation(detNewA), GF.toPolynomialRepresentation(detA)));
+        return true;
+    }
+
+    private static int findPivot(int[][] a, int col) {
+        for (int row = col; row < a.length; row++) {
+            if (a[row][col] != 0)
+                return row;
         }
+        return -1;
+    }
 
-        return solutions;
+    private static void swapRows(int[][] a, int i, int j) {
+        int[] tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    private static void eliminateBelow(GaloisField GF, int[][] a, int col) {
+        int pivotInverse = GF.inv(a[col][col]);
+        for (int row = col + 1; row < a.length; row++) {
+            int factor = GF.mul(a[row][col], pivotInverse);
+            if (factor == 0)
+                continue;
+
+            for (int k = col; k < a.length; k++) {
+                a[row][k] = GF.subtract(a[row][k], GF.mul(factor, a[col][k]));
+            }
+        }
+    }
+
+    private static int[][] copy(int[][] matrix) {
+        int[][] copy = new int[matrix.length][];
+        for (int i = 0; i < matrix.length; i++) {
+            copy[i] = matrix[i].clone();
+        }
+        return copy;
     }
 
 }
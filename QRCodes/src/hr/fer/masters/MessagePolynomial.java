@@ -1,75 +1,77 @@
 package hr.fer.masters;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Objects;
 
 // Polynomial whose coefficients are in GF(q=p^n)
 public class MessagePolynomial {
 
-    private GaloisField GF;
-    private List<Integer> integerCoefficients;
+    private final GaloisField GF;
+    private final int[] integerCoefficients;
 
     public MessagePolynomial(GaloisField GF, int... integerCoefficients) {
         this.GF = GF;
-        this.integerCoefficients = new ArrayList<>();
-        for (int i : integerCoefficients) {
-            this.integerCoefficients.add(i);
-        }
-        this.trim();
+        this.integerCoefficients = Arrays.copyOf(integerCoefficients, trimmedLength(integerCoefficients, integerCoefficients.length));
     }
 
     public MessagePolynomial(MessagePolynomial p) {
         this.GF = p.GF;
-        this.integerCoefficients = new ArrayList<>(p.integerCoefficients);
+        this.integerCoefficients = p.integerCoefficients.clone();
     }
 
     // Creates a monomial
     public MessagePolynomial(GaloisField GF, int coefficient, int degree) {
         this.GF = GF;
 
-        this.integerCoefficients = new ArrayList<>();
-        for (int i = 0; i < degree; i++) {
-            integerCoefficients.add(0);
-        }
-        integerCoefficients.add(coefficient);
+        this.integerCoefficients = new int[degree + 1];
+        integerCoefficients[degree] = coefficient;
+    }
+
+    // Takes ownership of the first length elements of coefficients
+    private MessagePolynomial(GaloisField GF, int[] coefficients, int length) {
+        this.GF = GF;
+        length = trimmedLength(coefficients, length);
+        this.integerCoefficients = length == coefficients.length ? coefficients : Arrays.copyOf(coefficients, length);
     }
 
     public int getDegree() {
-        return integerCoefficients.size() - 1;
+        return integerCoefficients.length - 1;
     }
 
     public int getCoefficient(int power) {
-        return integerCoefficients.get(power);
+        return integerCoefficients[power];
+    }
+
+    // Copies the coefficients, lowest power first, into destination starting at index 0
+    public void copyCoefficients(int[] destination) {
+        System.arraycopy(integerCoefficients, 0, destination, 0, integerCoefficients.length);
     }
 
     public GaloisField getGaloisField() {
         return this.GF;
     }
 
-    private MessagePolynomial trim() {
-        while(integerCoefficients.size() > 1 && integerCoefficients.get(getDegree()) == 0) {
-            integerCoefficients.remove(getDegree());
+    // Length without the leading zero coefficients, but never less than 1
+    private static int trimmedLength(int[] coefficients, int length) {
+        while (length > 1 && coefficients[length - 1] == 0) {
+            length--;
         }
-        return this;
+        return Math.max(length, 1);
     }
 
+    // Horner's rule
     public int evaluate(int value) {
-        int valueAsAlphaPower = GF.toPowerRepresentation(value);
-
-        int eval = 0;
-
-        for (int i = 0; i < integerCoefficients.size(); i++) {
-            eval = GF.toIntegerRepresentation(GF.add(
-                    GF.toPolynomialRepresentation(eval),
-                    GF.multiply(
-                            GF.toPolynomialRepresentation(integerCoefficients.get(i)),
-                            GF.toPolynomialRepresentation(GF.toIntegerRepresentation(valueAsAlphaPower * i))
-                    )
-            ));
-        }
+        return GF.evaluate(integerCoefficients, integerCoefficients.length, value);
+    }
 
-        return eval;
+    // out[k] = this(points[k]) for every point
+    public void evaluateAll(int[] points, int[] out) {
+        evaluateAll(GF, integerCoefficients, integerCoefficients.length, points, points.length, out);
+    }
+
+    // out[k] = sum(coefficients[i] * points[k]^i) for k < pointCount in a single pass over coefficients[0, length)
+    public static void evaluateAll(GaloisField GF, int[] coefficients, int length, int[] points, int pointCount, int[] out) {
+        GF.evaluateAll(coefficients, length, points, pointCount, out);
     }
 
     public static MessagePolynomial add(MessagePolynomial p1, MessagePolynomial p2) {
@@ -83,17 +85,12 @@ public class MessagePolynomial {
         int[] coef = new int[degree + 1];
 
         for (int i = 0; i < coef.length; i++) {
-            int a = p1Deg < i ? 0 : p1.getCoefficient(i);
-            int b = p2Deg < i ? 0 : p2.getCoefficient(i);
-            coef[i] = p1.GF.toIntegerRepresentation(
-                    p1.GF.add(
-                            p1.GF.toPolynomialRepresentation(a),
-                            p1.GF.toPolynomialRepresentation(b)
-                    )
-            );
+            int a = p1Deg < i ? 0 : p1.integerCoefficients[i];
+            int b = p2Deg < i ? 0 : p2.integerCoefficients[i];
+            coef[i] = p1.GF.add(a, b);
         }
 
-        return (new MessagePolynomial(p1.GF, coef)).trim();
+        return new MessagePolynomial(p1.GF, coef, coef.length);
     }
 
     public static MessagePolynomial subtract(MessagePolynomial p1, MessagePolynomial p2) {
@@ -107,17 +104,12 @@ public class MessagePolynomial {
         int[] coef = new int[degree + 1];
 
         for (int i = 0; i < coef.length; i++) {
-            int a = p1Deg < i ? 0 : p1.getCoefficient(i);
-            int b = p2Deg < i ? 0 : p2.getCoefficient(i);
-            coef[i] = p1.GF.toIntegerRepresentation(
-                    p1.GF.subtract(
-                            p1.GF.toPolynomialRepresentation(a),
-                            p1.GF.toPolynomialRepresentation(b)
-                    )
-            );
+            int a = p1Deg < i ? 0 : p1.integerCoefficients[i];
+            int b = p2Deg < i ? 0 : p2.integerCoefficients[i];
+            coef[i] = p1.GF.subtract(a, b);
         }
 
-        return (new MessagePolynomial(p1.GF, coef)).trim();
+        return new MessagePolynomial(p1.GF, coef, coef.length);
     }
 
     public static MessagePolynomial multiply(MessagePolynomial p1, MessagePolynomial p2) {
@@ -131,51 +123,32 @@ public class MessagePolynomial {
         int[] coef = new int[degree + 1];
 
         for (int i = 0; i <= p1Deg; i++) {
+            int a = p1.integerCoefficients[i];
+            if (a == 0)
+                continue;
+
             for (int j = 0; j <= p2Deg; j++) {
-                int product = p1.GF.toIntegerRepresentation(
-                        p1.GF.multiply(
-                                p1.GF.toPolynomialRepresentation(p1.integerCoefficients.get(i)),
-                                p1.GF.toPolynomialRepresentation(p2.integerCoefficients.get(j))
-                        )
-                );
-
-                coef[i + j] = p1.GF.toIntegerRepresentation(
-                        p1.GF.add(
-                                p1.GF.toPolynomialRepresentation(coef[i + j]),
-                                p1.GF.toPolynomialRepresentation(product)
-                        )
-                );
+                coef[i + j] = p1.GF.add(coef[i + j], p1.GF.mul(a, p2.integerCoefficients[j]));
             }
         }
 
-        return (new MessagePolynomial(p1.GF, coef)).trim();
+        return new MessagePolynomial(p1.GF, coef, coef.length);
     }
 
     public static DivisionResult divide(MessagePolynomial p1, MessagePolynomial p2) {
         if (!p1.GF.equals(p2.GF))
             throw new RuntimeException("Not compatible");
 
-        MessagePolynomial tmp1 = new MessagePolynomial(p1);
-        MessagePolynomial tmp2;
-        int leadCoefP2 = p2.integerCoefficients.get(p2.integerCoefficients.size() - 1);
-
-        int resultDegree = p1.getDegree() - p2.getDegree();
-        resultDegree = resultDegree < 0 ? 0 : resultDegree;
-        int[] result = new int[resultDegree + 1];
-
-        while (tmp1.getDegree() >= p2.getDegree()) {
-            int leadCoefTmp1 = tmp1.integerCoefficients.get(tmp1.integerCoefficients.size() - 1);
-
-            int resultMemberDegree = tmp1.getDegree() - p2.getDegree();
-            int resultMemberCoef = p1.GF.toIntegerRepresentation(p1.GF.divide(p1.GF.toPolynomialRepresentation(leadCoefTmp1), p1.GF.toPolynomialRepresentation(leadCoefP2)));
+        int p2Deg = p2.getDegree();
+        int[] work = p1.integerCoefficients.clone();
+        PolynomialBuffer.syntheticDivide(p1.GF, work, work.length, p2.integerCoefficients, p2.integerCoefficients.length);
 
-            MessagePolynomial monomialResultMember = new MessagePolynomial(p1.GF, resultMemberCoef, resultMemberDegree);
-            result[resultMemberDegree] = resultMemberCoef;
-            tmp2 = MessagePolynomial.multiply(p2, monomialResultMember);
-            tmp1 = MessagePolynomial.subtract(tmp1, tmp2);
-        }
+        if (work.length <= p2Deg)
+            return new DivisionResult(new MessagePolynomial(p1.GF, 0), new MessagePolynomial(p1.GF, work, work.length));
 
-        return new DivisionResult(new MessagePolynomial(p1.GF, result), tmp1);
+        int[] result = Arrays.copyOfRange(work, p2Deg, work.length);
+        MessagePolynomial remainder = p2Deg == 0 ? new MessagePolynomial(p1.GF, 0) : new MessagePolynomial(p1.GF, work, p2Deg);
+        return new DivisionResult(new MessagePolynomial(p1.GF, result, result.length), remainder);
     }
 
     public static class DivisionResult {
@@ -209,19 +182,19 @@ public class MessagePolynomial {
         if (this == o) return true;
         if (!(o instanceof MessagePolynomial)) return false;
         MessagePolynomial that = (MessagePolynomial) o;
-        return Objects.equals(GF, that.GF) && Objects.equals(integerCoefficients, that.integerCoefficients);
+        return Objects.equals(GF, that.GF) && Arrays.equals(integerCoefficients, that.integerCoefficients);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(GF, integerCoefficients);
+        return 31 * Objects.hashCode(GF) + Arrays.hashCode(integerCoefficients);
     }
 
     @Override
     public String toString() {
         return "MessagePolynomial{" +
                 "GF=" + GF +
-                ", integerCoefficients=" + integerCoefficients +
+                ", integerCoefficients=" + Arrays.toString(integerCoefficients) +
                 '}';
     }
 }
@@ -0,0 +1,284 @@
+package hr.fer.masters;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded, thread-safe cache of decoded symbols for streams that repeat the same symbol, e.g. camera frames. Keys are
+// the raw codeword bytes together with version and error correction level; a 64 bit hash of them picks one of the
+// stripes and the bucket within it, and the stored bytes are compared in full, so a hash collision is only a miss.
+// Every stripe is an access ordered LinkedHashMap behind its own lock, evicting its least recently used entries once
+// the estimated footprint of its entries exceeds its share of maxBytes.
+public class PayloadCache {
+
+    // Estimated heap cost of an entry besides its codeword bytes and payload characters: the node, its byte[] and
+    // String headers, the Decoded value, the boxed hash and the LinkedHashMap entry
+    private static final int ENTRY_OVERHEAD = 200;
+
+    // Footprint of the largest entry: a version 40 symbol of 3706 codewords holding the most characters any symbol
+    // can, 7089 digits in numeric mode at level L. Every stripe's share of maxBytes is at least this much.
+    public static final int MAX_ENTRY_BYTES = ENTRY_OVERHEAD + 3706 + 2 * 7089;
+
+    private final long maxBytes;
+    private final Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Four stripes per processor, fewer if maxBytes is too small for them
+    public PayloadCache(long maxBytes) {
+        this(maxBytes, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    // stripes is rounded up to a power of two, then halved until every stripe can hold an entry of MAX_ENTRY_BYTES
+    public PayloadCache(long maxBytes, int stripes) {
+        if (stripes <= 0)
+            throw new RuntimeException("Stripe count must be positive");
+        if (maxBytes < MAX_ENTRY_BYTES)
+            throw new RuntimeException("Cache size must be at least " + MAX_ENTRY_BYTES + " bytes");
+
+        int count = Integer.highestOneBit(stripes);
+        if (count < stripes)
+            count <<= 1;
+        while (maxBytes / count < MAX_ENTRY_BYTES) {
+            count >>= 1;
+        }
+
+        this.maxBytes = maxBytes;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(maxBytes / count);
+        }
+    }
+
+    // Cached decoding of codewords[position, limit), or null if it is not in the cache; the buffer's position is
+    // left unchanged
+    public Decoded get(ByteBuffer codewords, int version, ErrorCorrectionLevel level) {
+        int levelKey = level == null ? -1 : level.ordinal();
+        long hash = hash(codewords, version, levelKey);
+
+        Decoded decoded = stripeOf(hash).get(hash, codewords, version, levelKey);
+        (decoded == null ? misses : hits).increment();
+        return decoded;
+    }
+
+    // Caches the decoding of codewords[position, limit); payload is null for an uncorrectable result
+    public void put(ByteBuffer codewords, int version, ErrorCorrectionLevel level, DecodeResult result, String payload) {
+        int levelKey = level == null ? -1 : level.ordinal();
+        long hash = hash(codewords, version, levelKey);
+
+        byte[] bytes = new byte[codewords.remaining()];
+        codewords.get(codewords.position(), bytes);
+
+        Node node = new Node(hash, bytes, version, levelKey, new Decoded(result, payload));
+        evictions.add(stripeOf(hash).put(node));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // Number of cached symbols
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    // Estimated heap footprint of the cached symbols, at most getMaxBytes()
+    public long getEstimatedBytes() {
+        long bytes = 0;
+        for (Stripe stripe : stripes) {
+            bytes += stripe.bytes();
+        }
+        return bytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private Stripe stripeOf(long hash) {
+        return stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+    }
+
+    // Multiply-xorshift over 8 bytes at a time, finished with the MurmurHash3 64 bit mixer
+    private static long hash(ByteBuffer codewords, int version, int levelKey) {
+        int position = codewords.position();
+        int limit = codewords.limit();
+
+        long hash = (limit - position) * 0x9E3779B97F4A7C15L ^ ((long) version << 8 | (levelKey & 0xFF));
+        int i = position;
+        for (; i + 8 <= limit; i += 8) {
+            hash = Long.rotateLeft(hash ^ codewords.getLong(i) * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+        }
+        for (; i < limit; i++) {
+            hash = (hash ^ (codewords.get(i) & 0xFF)) * 0x100000001B3L;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // Decoding outcome of a cached symbol
+    public static class Decoded {
+        private final DecodeResult result;
+        private final String payload;
+
+        private Decoded(DecodeResult result, String payload) {
+            this.result = result;
+            this.payload = payload;
+        }
+
+        public DecodeResult getResult() {
+            return result;
+        }
+
+        // null if the symbol was uncorrectable
+        public String getPayload() {
+            return payload;
+        }
+    }
+
+    private static final class Node {
+        private final long hash;
+        private final byte[] codewords;
+        private final int version;
+        private final int levelKey;
+        private final Decoded decoded;
+        private final int footprint;
+
+        // Other entries with the same hash
+        private Node next;
+
+        private Node(long hash, byte[] codewords, int version, int levelKey, Decoded decoded) {
+            this.hash = hash;
+            this.codewords = codewords;
+            this.version = version;
+            this.levelKey = levelKey;
+            this.decoded = decoded;
+            this.footprint = ENTRY_OVERHEAD + codewords.length + (decoded.payload == null ? 0 : 2 * decoded.payload.length());
+        }
+
+        private boolean matches(ByteBuffer codewords, int version, int levelKey) {
+            if (this.version != version || this.levelKey != levelKey || this.codewords.length != codewords.remaining())
+                return false;
+
+            int position = codewords.position();
+            for (int i = 0; i < this.codewords.length; i++) {
+                if (this.codewords[i] != codewords.get(position + i))
+                    return false;
+            }
+            return true;
+        }
+
+        private boolean matches(Node other) {
+            return version == other.version && levelKey == other.levelKey && Arrays.equals(codewords, other.codewords);
+        }
+    }
+
+    private static final class Stripe {
+        private final long maxBytes;
+        private final LinkedHashMap<Long, Node> buckets = new LinkedHashMap<>(16, 0.75f, true);
+        private long bytes;
+        private int size;
+
+        private Stripe(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        private synchronized Decoded get(long hash, ByteBuffer codewords, int version, int levelKey) {
+            for (Node node = buckets.get(hash); node != null; node = node.next) {
+                if (node.matches(codewords, version, levelKey))
+                    return node.decoded;
+            }
+            return null;
+        }
+
+        // Returns the number of entries evicted to make room
+        private synchronized int put(Node node) {
+            if (node.footprint > maxBytes)
+                return 0;
+
+            // Decoded concurrently by another thread, keep its entry
+            Node head = buckets.get(node.hash);
+            for (Node other = head; other != null; other = other.next) {
+                if (other.matches(node))
+                    return 0;
+            }
+
+            node.next = head;
+            buckets.put(node.hash, node);
+            bytes += node.footprint;
+            size++;
+
+            int evicted = 0;
+            Iterator<Map.Entry<Long, Node>> eldest = buckets.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<Long, Node> entry = eldest.next();
+                if (entry.getValue() == node)
+                    continue;
+
+                for (Node removed = entry.getValue(); removed != null; removed = removed.next) {
+                    bytes -= removed.footprint;
+                    size--;
+                    evicted++;
+                }
+                eldest.remove();
+            }
+            return evicted;
+        }
+
+        private synchronized long size() {
+            return size;
+        }
+
+        private synchronized long bytes() {
+            return bytes;
+        }
+
+        private synchronized void clear() {
+            buckets.clear();
+            bytes = 0;
+            size = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        long hits = getHitCount();
+        long misses = getMissCount();
+        return "PayloadCache{" +
+                "entries=" + size() +
+                ", bytes=" + getEstimatedBytes() + "/" + maxBytes +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", hitRate=" + String.format("%.1f%%", hits + misses == 0 ? 0.0 : 100.0 * hits / (hits + misses)) +
+                ", evictions=" + getEvictionCount() +
+                '}';
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Objects;
 public class Polynomial {
 
     public static final Polynomial QRCodePrimitive = new Polynomial(1, 0, 1, 1, 1, 0, 0, 0, 1); // x8 + x4 + x3 + x2 + 1
+    public static final Polynomial GF65536Primitive = new Polynomial(1, 1, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 1); // x16 + x12 + x3 + x + 1
     public static final Polynomial ZERO = new Polynomial(new int[]{0});
     public static final Polynomial ONE = new Polynomial(new int[]{1});
 
@@ -48,11 +49,12 @@ public class Polynomial {
         return this;
     }
 
+    // Horner's rule over the integers
     public int evaluate(int value) {
         int eval = 0;
 
-        for (int i = 0; i < coefficients.size(); i++) {
-            eval += coefficients.get(i) * (int)(Math.pow(value, i));
+        for (int i = coefficients.size() - 1; i >= 0; i--) {
+            eval = eval * value + coefficients.get(i);
         }
 
         return eval;
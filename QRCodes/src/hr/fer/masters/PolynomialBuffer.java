@@ -0,0 +1,196 @@
+package hr.fer.masters;
+
+import java.util.Arrays;
+
+// Mutable polynomial over GF(q=p^n) with a fixed capacity, meant to be reused as scratch space in the decoder's
+// inner loops; none of the instance methods allocate
+public class PolynomialBuffer {
+
+    private final GaloisField GF;
+    private final int[] coefficients;
+    private int degree;
+
+    public PolynomialBuffer(GaloisField GF, int capacity) {
+        this.GF = GF;
+        this.coefficients = new int[capacity];
+        this.degree = 0;
+    }
+
+    public GaloisField getGaloisField() {
+        return GF;
+    }
+
+    public int getCapacity() {
+        return coefficients.length;
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    // Coefficients above the degree (up to the capacity) are always zero
+    public int getCoefficient(int power) {
+        return coefficients[power];
+    }
+
+    public void setCoefficient(int power, int coefficient) {
+        coefficients[power] = coefficient;
+        if (power > degree)
+            degree = power;
+        else if (power == degree)
+            trim();
+    }
+
+    private void trim() {
+        while (degree > 0 && coefficients[degree] == 0) {
+            degree--;
+        }
+    }
+
+    private void ensureCapacity(int degree) {
+        if (degree >= coefficients.length)
+            throw new RuntimeException("Polynomial buffer capacity exceeded");
+    }
+
+    public PolynomialBuffer clear() {
+        Arrays.fill(coefficients, 0, degree + 1, 0);
+        degree = 0;
+        return this;
+    }
+
+    public PolynomialBuffer setMonomial(int coefficient, int degree) {
+        ensureCapacity(degree);
+        clear();
+        coefficients[degree] = coefficient;
+        this.degree = degree;
+        trim();
+        return this;
+    }
+
+    public PolynomialBuffer set(PolynomialBuffer other) {
+        ensureCapacity(other.degree);
+        clear();
+        System.arraycopy(other.coefficients, 0, coefficients, 0, other.degree + 1);
+        degree = other.degree;
+        return this;
+    }
+
+    public PolynomialBuffer set(MessagePolynomial other) {
+        ensureCapacity(other.getDegree());
+        clear();
+        other.copyCoefficients(coefficients);
+        degree = other.getDegree();
+        return this;
+    }
+
+    // Sets this to the first length elements of coefficients, lowest power first
+    public PolynomialBuffer set(int[] coefficients, int length) {
+        ensureCapacity(length - 1);
+        clear();
+        System.arraycopy(coefficients, 0, this.coefficients, 0, length);
+        degree = Math.max(length - 1, 0);
+        trim();
+        return this;
+    }
+
+    // this = this + scale * x^shift * other
+    public PolynomialBuffer addScaledShifted(PolynomialBuffer other, int scale, int shift) {
+        if (scale == 0 || (other.degree == 0 && other.coefficients[0] == 0))
+            return this;
+
+        ensureCapacity(other.degree + shift);
+        for (int i = 0; i <= other.degree; i++) {
+            coefficients[i + shift] = GF.add(coefficients[i + shift], GF.mul(scale, other.coefficients[i]));
+        }
+
+        degree = Math.max(degree, other.degree + shift);
+        trim();
+        return this;
+    }
+
+    // this = this * (1 - root * x)
+    public PolynomialBuffer multiplyByLinear(int root) {
+        if (root == 0 || (degree == 0 && coefficients[0] == 0))
+            return this;
+
+        ensureCapacity(degree + 1);
+        for (int i = degree + 1; i > 0; i--) {
+            coefficients[i] = GF.subtract(coefficients[i], GF.mul(root, coefficients[i - 1]));
+        }
+
+        degree++;
+        trim();
+        return this;
+    }
+
+    public PolynomialBuffer scale(int factor) {
+        for (int i = 0; i <= degree; i++) {
+            coefficients[i] = GF.mul(coefficients[i], factor);
+        }
+        trim();
+        return this;
+    }
+
+    // Sets this to the coefficients of other in reverse order, x^degree * other(1/x)
+    public PolynomialBuffer setReversed(PolynomialBuffer other) {
+        ensureCapacity(other.degree);
+        clear();
+        for (int i = 0; i <= other.degree; i++) {
+            coefficients[i] = other.coefficients[other.degree - i];
+        }
+        degree = other.degree;
+        trim();
+        return this;
+    }
+
+    // Horner's rule
+    public int evaluate(int value) {
+        int eval = 0;
+        for (int i = degree; i >= 0; i--) {
+            eval = GF.add(GF.mul(eval, value), coefficients[i]);
+        }
+        return eval;
+    }
+
+    // Replaces this with the remainder of the division by divisor
+    public PolynomialBuffer remainder(PolynomialBuffer divisor) {
+        if (degree < divisor.degree)
+            return this;
+
+        syntheticDivide(GF, coefficients, degree + 1, divisor.coefficients, divisor.degree + 1);
+        Arrays.fill(coefficients, divisor.degree, degree + 1, 0);
+        degree = Math.max(divisor.degree - 1, 0);
+        trim();
+        return this;
+    }
+
+    public MessagePolynomial toMessagePolynomial() {
+        return new MessagePolynomial(GF, Arrays.copyOf(coefficients, degree + 1));
+    }
+
+    // Synthetic division in place; coefficients are stored lowest power first. Afterwards dividend[0, divisorLength - 1)
+    // holds the remainder and dividend[divisorLength - 1, dividendLength) the quotient, also lowest power first.
+    public static void syntheticDivide(GaloisField GF, int[] dividend, int dividendLength, int[] divisor, int divisorLength) {
+        int divisorDegree = divisorLength - 1;
+        int leadInverse = GF.inv(divisor[divisorDegree]);
+
+        for (int i = dividendLength - 1; i >= divisorDegree; i--) {
+            int coefficient = GF.mul(dividend[i], leadInverse);
+            dividend[i] = coefficient;
+            if (coefficient == 0)
+                continue;
+
+            for (int j = 0; j < divisorDegree; j++) {
+                int k = i - divisorDegree + j;
+                dividend[k] = GF.subtract(dividend[k], GF.mul(coefficient, divisor[j]));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PolynomialBuffer{" +
+                "coefficients=" + Arrays.toString(Arrays.copyOf(coefficients, degree + 1)) +
+                '}';
+    }
+}
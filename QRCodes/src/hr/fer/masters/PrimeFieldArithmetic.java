@@ -0,0 +1,135 @@
+package hr.fer.masters;
+
+import java.util.Arrays;
+
+// General GF(p^n) arithmetic; elements are base-p digit strings, so addition works digit by digit modulo p
+public class PrimeFieldArithmetic implements FieldArithmetic {
+
+    private final int p;
+    private final int q;
+
+    // Log-antilog table; exp table is doubled (length 2 * (q - 1)) so that log[a] + log[b] never needs a modulo
+    private final int[] expTable;
+    private final int[] logTable;
+
+    // primitivePolynomialInt is the integer representation of a monic primitive polynomial of degree n
+    public PrimeFieldArithmetic(int primitivePolynomialInt, int p, int n) {
+        this.p = p;
+        this.q = (int) Math.pow(p, n);
+
+        expTable = new int[2 * (q - 1)];
+        logTable = new int[q];
+
+        // The x^n digit, the highest one, must be 1 for the reduction below to be x^n = -(lower terms)
+        if (primitivePolynomialInt / q != 1)
+            throw notPrimitive(primitivePolynomialInt, p);
+        int reduction = negate(primitivePolynomialInt - q);
+
+        // alpha = x is primitive if its powers only return to 1 after all q - 1 nonzero elements
+        int element = 1;
+        for (int i = 0; i < q - 1; i++) {
+            if (element == 0 || i > 0 && element == 1)
+                throw notPrimitive(primitivePolynomialInt, p);
+
+            expTable[i] = element;
+            expTable[i + q - 1] = element;
+            logTable[element] = i;
+
+            // element * alpha: shift every digit up by one position and fold the overflowing digit back
+            int shifted = element * p;
+            int overflow = shifted / q;
+            element = add(shifted - overflow * q, scale(reduction, overflow));
+        }
+        if (element != 1)
+            throw notPrimitive(primitivePolynomialInt, p);
+    }
+
+    private static RuntimeException notPrimitive(int primitivePolynomialInt, int p) {
+        return new RuntimeException("Polynomial " + Integer.toString(primitivePolynomialInt, p) + " is not monic and primitive over GF(" + p + ")");
+    }
+
+    @Override
+    public int add(int a, int b) {
+        int result = 0;
+        for (int pPower = 1; a != 0 || b != 0; pPower *= p, a /= p, b /= p) {
+            result += ((a % p + b % p) % p) * pPower;
+        }
+        return result;
+    }
+
+    @Override
+    public int subtract(int a, int b) {
+        int result = 0;
+        for (int pPower = 1; a != 0 || b != 0; pPower *= p, a /= p, b /= p) {
+            result += ((a % p - b % p + p) % p) * pPower;
+        }
+        return result;
+    }
+
+    @Override
+    public int negate(int a) {
+        return subtract(0, a);
+    }
+
+    // Multiplies every coefficient of a by the scalar c from GF(p)
+    private int scale(int a, int c) {
+        int result = 0;
+        for (int pPower = 1; a != 0; pPower *= p, a /= p) {
+            result += ((a % p) * c % p) * pPower;
+        }
+        return result;
+    }
+
+    @Override
+    public int mul(int a, int b) {
+        if (a == 0 || b == 0)
+            return 0;
+        return expTable[logTable[a] + logTable[b]];
+    }
+
+    @Override
+    public int div(int a, int b) {
+        if (b == 0)
+            throw new RuntimeException("Division by zero");
+        if (a == 0)
+            return 0;
+        return expTable[logTable[a] + q - 1 - logTable[b]];
+    }
+
+    @Override
+    public int inv(int a) {
+        if (a == 0)
+            throw new RuntimeException("Zero has no inverse");
+        return expTable[q - 1 - logTable[a]];
+    }
+
+    @Override
+    public int pow(int a, int exponent) {
+        if (a == 0)
+            return exponent == 0 ? 1 : 0;
+
+        int power = (int) ((long) logTable[a] * exponent % (q - 1));
+        return expTable[power < 0 ? power + q - 1 : power];
+    }
+
+    @Override
+    public int exp(int power) {
+        power %= q - 1;
+        return expTable[power < 0 ? power + q - 1 : power];
+    }
+
+    @Override
+    public int log(int a) {
+        if (a == 0)
+            throw new RuntimeException("Logarithm of zero is undefined");
+        return logTable[a];
+    }
+
+    @Override
+    public String toString() {
+        return "PrimeFieldArithmetic{" +
+                "expTable=" + Arrays.toString(Arrays.copyOf(expTable, q - 1)) +
+                ", logTable=" + Arrays.toString(logTable) +
+                '}';
+    }
+}
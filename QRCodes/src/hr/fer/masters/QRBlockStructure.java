@@ -0,0 +1,159 @@
+package hr.fer.masters;
+
+// Split of a QR symbol's codewords into Reed-Solomon blocks. The first getShortBlockCount() blocks carry one data
+// codeword less than the rest; every block has the same number of error correction codewords.
+public class QRBlockStructure {
+
+    // QR codes use GF256 with the first consecutive root alpha^0
+    public static final int FCR = 0;
+
+    public static final int MIN_VERSION = 1;
+    public static final int MAX_VERSION = 40;
+
+    // Indexed by ErrorCorrectionLevel ordinal, then by version (index 0 unused)
+    private static final int[][] EC_CODEWORDS_PER_BLOCK = {
+            {-1, 7, 10, 15, 20, 26, 18, 20, 24, 30, 18, 20, 24, 26, 30, 22, 24, 28, 30, 28, 28, 28, 28, 30, 30, 26, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+            {-1, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26, 30, 22, 22, 24, 24, 28, 28, 26, 26, 26, 26, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28},
+            {-1, 13, 22, 18, 26, 18, 24, 18, 22, 20, 24, 28, 26, 24, 20, 30, 24, 28, 28, 26, 30, 28, 30, 30, 30, 30, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+            {-1, 17, 28, 22, 16, 22, 28, 26, 26, 24, 28, 24, 28, 22, 24, 24, 30, 28, 28, 26, 28, 30, 24, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30}
+    };
+
+    private static final int[][] BLOCK_COUNT = {
+            {-1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 4, 4, 4, 4, 4, 6, 6, 6, 6, 7, 8, 8, 9, 9, 10, 12, 12, 12, 13, 14, 15, 16, 17, 18, 19, 19, 20, 21, 22, 24, 25},
+            {-1, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5, 5, 8, 9, 9, 10, 10, 11, 13, 14, 16, 17, 17, 18, 20, 21, 23, 25, 26, 28, 29, 31, 33, 35, 37, 38, 40, 43, 45, 47, 49},
+            {-1, 1, 1, 2, 2, 4, 4, 6, 6, 8, 8, 8, 10, 12, 16, 12, 17, 16, 18, 21, 20, 23, 23, 25, 27, 29, 34, 34, 35, 38, 40, 43, 45, 48, 51, 53, 56, 59, 62, 65, 68},
+            {-1, 1, 1, 2, 4, 4, 4, 5, 6, 8, 8, 11, 11, 16, 16, 18, 16, 19, 21, 25, 25, 25, 34, 30, 32, 35, 37, 40, 42, 45, 48, 51, 54, 57, 60, 63, 66, 70, 74, 77, 81}
+    };
+
+    private static final QRBlockStructure[][] STRUCTURES = new QRBlockStructure[ErrorCorrectionLevel.values().length][MAX_VERSION + 1];
+
+    static {
+        for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+            for (int version = MIN_VERSION; version <= MAX_VERSION; version++) {
+                STRUCTURES[level.ordinal()][version] = new QRBlockStructure(version, totalCodewords(version),
+                        EC_CODEWORDS_PER_BLOCK[level.ordinal()][version], BLOCK_COUNT[level.ordinal()][version]);
+            }
+        }
+    }
+
+    private final int version;
+    private final int totalCodewords;
+    private final int ecCodewordsPerBlock;
+    private final int blockCount;
+    private final int shortBlockCount;
+    private final int shortBlockDataCodewords;
+
+    public QRBlockStructure(int version, int totalCodewords, int ecCodewordsPerBlock, int blockCount) {
+        if (blockCount < 1 || totalCodewords / blockCount <= ecCodewordsPerBlock)
+            throw new RuntimeException("Invalid block structure");
+
+        this.version = version;
+        this.totalCodewords = totalCodewords;
+        this.ecCodewordsPerBlock = ecCodewordsPerBlock;
+        this.blockCount = blockCount;
+        this.shortBlockCount = blockCount - totalCodewords % blockCount;
+        this.shortBlockDataCodewords = totalCodewords / blockCount - ecCodewordsPerBlock;
+    }
+
+    public static QRBlockStructure of(int version, ErrorCorrectionLevel level) {
+        if (version < MIN_VERSION || version > MAX_VERSION)
+            throw new RuntimeException("Version must be between " + MIN_VERSION + " and " + MAX_VERSION);
+        return STRUCTURES[level.ordinal()][version];
+    }
+
+    // Codewords of a version, i.e. the data modules left after all function patterns and format/version information
+    private static int totalCodewords(int version) {
+        int modules = (16 * version + 128) * version + 64;
+        if (version >= 2) {
+            int alignmentPatterns = version / 7 + 2;
+            modules -= (25 * alignmentPatterns - 10) * alignmentPatterns - 55;
+            if (version >= 7)
+                modules -= 36;
+        }
+        return modules / 8;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getTotalCodewords() {
+        return totalCodewords;
+    }
+
+    public int getDataCodewords() {
+        return totalCodewords - ecCodewordsPerBlock * blockCount;
+    }
+
+    public int getEcCodewordsPerBlock() {
+        return ecCodewordsPerBlock;
+    }
+
+    public int getBlockCount() {
+        return blockCount;
+    }
+
+    public int getShortBlockCount() {
+        return shortBlockCount;
+    }
+
+    public int getBlockDataCodewords(int block) {
+        return block < shortBlockCount ? shortBlockDataCodewords : shortBlockDataCodewords + 1;
+    }
+
+    public int getBlockLength(int block) {
+        return getBlockDataCodewords(block) + ecCodewordsPerBlock;
+    }
+
+    public int getMaxBlockLength() {
+        return getBlockLength(blockCount - 1);
+    }
+
+    // Index of the block's first data codeword in the non-interleaved data codeword sequence
+    public int getBlockDataOffset(int block) {
+        return block * shortBlockDataCodewords + Math.max(0, block - shortBlockCount);
+    }
+
+    // Position in the interleaved codeword sequence of the k-th codeword (in transmission order) of a block. Data
+    // codewords are interleaved first, block by block, with the extra codeword of the long blocks last; then the error
+    // correction codewords the same way.
+    public int getInterleavedIndex(int block, int k) {
+        int blockData = getBlockDataCodewords(block);
+        if (k >= blockData)
+            return getDataCodewords() + (k - blockData) * blockCount + block;
+        if (k < shortBlockDataCodewords)
+            return k * blockCount + block;
+        return shortBlockDataCodewords * blockCount + block - shortBlockCount;
+    }
+
+    // Inverse of getInterleavedIndex: the block of the codeword at index of the symbol
+    public int getBlockOf(int index) {
+        if (index < shortBlockDataCodewords * blockCount)
+            return index % blockCount;
+        if (index < getDataCodewords())
+            return shortBlockCount + index - shortBlockDataCodewords * blockCount;
+        return (index - getDataCodewords()) % blockCount;
+    }
+
+    // Inverse of getInterleavedIndex: position k within its block of the codeword at index of the symbol
+    public int getPositionInBlock(int index) {
+        if (index < shortBlockDataCodewords * blockCount)
+            return index / blockCount;
+        if (index < getDataCodewords())
+            return shortBlockDataCodewords;
+        int j = index - getDataCodewords();
+        return getBlockDataCodewords(j % blockCount) + j / blockCount;
+    }
+
+    @Override
+    public String toString() {
+        return "QRBlockStructure{" +
+                "version=" + version +
+                ", totalCodewords=" + totalCodewords +
+                ", ecCodewordsPerBlock=" + ecCodewordsPerBlock +
+                ", blockCount=" + blockCount +
+                ", shortBlockCount=" + shortBlockCount +
+                ", shortBlockDataCodewords=" + shortBlockDataCodewords +
+                '}';
+    }
+}
@@ -0,0 +1,194 @@
+package hr.fer.masters;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Parses the segments of a QR symbol's data codewords: numeric, alphanumeric, byte and kanji mode, ECI designators for
+// the byte mode character set, with structured append and FNC1 headers skipped. One instance reuses its bit reader and
+// byte scratch buffer between symbols, so it must not be shared by threads.
+public class QRPayloadDecoder {
+
+    private static final int MODE_TERMINATOR = 0b0000;
+    private static final int MODE_NUMERIC = 0b0001;
+    private static final int MODE_ALPHANUMERIC = 0b0010;
+    private static final int MODE_STRUCTURED_APPEND = 0b0011;
+    private static final int MODE_BYTE = 0b0100;
+    private static final int MODE_FNC1_FIRST = 0b0101;
+    private static final int MODE_ECI = 0b0111;
+    private static final int MODE_KANJI = 0b1000;
+    private static final int MODE_FNC1_SECOND = 0b1001;
+
+    private static final char[] ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:".toCharArray();
+
+    private static final Charset SHIFT_JIS = Charset.forName("Shift_JIS");
+
+    // Character set of every ECI designator below 31, null if unassigned; 4 - 18 are ISO-8859-2 to ISO-8859-16, there
+    // is no ISO-8859-12
+    private static final String[] ECI_CHARSET_NAMES = {
+            "Cp437", "ISO-8859-1", "Cp437", "ISO-8859-1", "ISO-8859-2", "ISO-8859-3", "ISO-8859-4", "ISO-8859-5",
+            "ISO-8859-6", "ISO-8859-7", "ISO-8859-8", "ISO-8859-9", "ISO-8859-10", "ISO-8859-11", null, "ISO-8859-13",
+            "ISO-8859-14", "ISO-8859-15", "ISO-8859-16", null, "Shift_JIS", "windows-1250", "windows-1251",
+            "windows-1252", "windows-1256", "UTF-16BE", "UTF-8", "US-ASCII", "Big5", "GB18030", "EUC-KR"
+    };
+
+    // Looked up once rather than per segment; null where the JVM has no such charset, e.g. ISO-8859-10 and ISO-8859-14
+    // on JDK 17, and a byte segment in one of those fails with an error naming it instead of decoding to wrong text
+    private static final Charset[] ECI_CHARSETS = new Charset[ECI_CHARSET_NAMES.length];
+
+    static {
+        for (int i = 0; i < ECI_CHARSET_NAMES.length; i++) {
+            if (ECI_CHARSET_NAMES[i] != null && Charset.isSupported(ECI_CHARSET_NAMES[i]))
+                ECI_CHARSETS[i] = Charset.forName(ECI_CHARSET_NAMES[i]);
+        }
+    }
+
+    private final BitReader reader = new BitReader();
+    private byte[] scratch = new byte[256];
+
+    // Appends the decoded text of dataCodewords[0, length) to out and returns out
+    public StringBuilder decode(int[] dataCodewords, int length, int version, StringBuilder out) {
+        reader.reset(dataCodewords, length);
+        Charset charset = StandardCharsets.ISO_8859_1;
+
+        while (reader.available() >= 4) {
+            int mode = reader.readBits(4);
+            switch (mode) {
+                case MODE_TERMINATOR:
+                    return out;
+                case MODE_NUMERIC:
+                    numeric(reader.readBits(countBits(version, 10, 12, 14)), out);
+                    break;
+                case MODE_ALPHANUMERIC:
+                    alphanumeric(reader.readBits(countBits(version, 9, 11, 13)), out);
+                    break;
+                case MODE_BYTE:
+                    bytes(reader.readBits(countBits(version, 8, 16, 16)), charset, out);
+                    break;
+                case MODE_KANJI:
+                    kanji(reader.readBits(countBits(version, 8, 10, 12)), out);
+                    break;
+                case MODE_ECI:
+                    charset = eciCharset(eciDesignator());
+                    break;
+                case MODE_STRUCTURED_APPEND:
+                    reader.readBits(16);
+                    break;
+                case MODE_FNC1_FIRST:
+                    break;
+                case MODE_FNC1_SECOND:
+                    reader.readBits(8);
+                    break;
+                default:
+                    throw new RuntimeException("Unsupported mode " + Integer.toBinaryString(mode));
+            }
+        }
+
+        return out;
+    }
+
+    public StringBuilder decode(int[] dataCodewords, int version, StringBuilder out) {
+        return decode(dataCodewords, dataCodewords.length, version, out);
+    }
+
+    // Character count indicator length for versions 1 - 9, 10 - 26 and 27 - 40
+    private static int countBits(int version, int small, int medium, int large) {
+        return version <= 9 ? small : version <= 26 ? medium : large;
+    }
+
+    private void numeric(int count, StringBuilder out) {
+        for (; count >= 3; count -= 3) {
+            int value = reader.readBits(10);
+            if (value >= 1000)
+                throw new RuntimeException("Invalid numeric group");
+            out.append((char) ('0' + value / 100)).append((char) ('0' + value / 10 % 10)).append((char) ('0' + value % 10));
+        }
+
+        if (count == 2) {
+            int value = reader.readBits(7);
+            if (value >= 100)
+                throw new RuntimeException("Invalid numeric group");
+            out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+        } else if (count == 1) {
+            int value = reader.readBits(4);
+            if (value >= 10)
+                throw new RuntimeException("Invalid numeric group");
+            out.append((char) ('0' + value));
+        }
+    }
+
+    private void alphanumeric(int count, StringBuilder out) {
+        for (; count >= 2; count -= 2) {
+            int value = reader.readBits(11);
+            if (value >= 45 * 45)
+                throw new RuntimeException("Invalid alphanumeric pair");
+            out.append(ALPHANUMERIC[value / 45]).append(ALPHANUMERIC[value % 45]);
+        }
+
+        if (count == 1) {
+            int value = reader.readBits(6);
+            if (value >= 45)
+                throw new RuntimeException("Invalid alphanumeric character");
+            out.append(ALPHANUMERIC[value]);
+        }
+    }
+
+    private void bytes(int count, Charset charset, StringBuilder out) {
+        // The default ISO-8859-1 maps every byte to the char of the same value, no decoder needed
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < count; i++) {
+                out.append((char) reader.readBits(8));
+            }
+            return;
+        }
+
+        byte[] bytes = scratch(count);
+        for (int i = 0; i < count; i++) {
+            bytes[i] = (byte) reader.readBits(8);
+        }
+        out.append(new String(bytes, 0, count, charset));
+    }
+
+    // Every kanji is 13 bits, a compacted Shift JIS double byte character
+    private void kanji(int count, StringBuilder out) {
+        byte[] bytes = scratch(2 * count);
+        for (int i = 0; i < count; i++) {
+            int value = reader.readBits(13);
+            int code = (value / 0xC0 << 8) | (value % 0xC0);
+            code += code < 0x1F00 ? 0x8140 : 0xC140;
+            bytes[2 * i] = (byte) (code >> 8);
+            bytes[2 * i + 1] = (byte) code;
+        }
+        out.append(new String(bytes, 0, 2 * count, SHIFT_JIS));
+    }
+
+    // ECI assignment number in 8, 16 or 24 bits depending on its leading bits
+    private int eciDesignator() {
+        int first = reader.readBits(8);
+        if ((first & 0x80) == 0)
+            return first;
+        if ((first & 0xC0) == 0x80)
+            return ((first & 0x3F) << 8) | reader.readBits(8);
+        if ((first & 0xE0) == 0xC0)
+            return ((first & 0x1F) << 16) | reader.readBits(16);
+        throw new RuntimeException("Invalid ECI designator");
+    }
+
+    // ECI 170 is ISO 646 invariant, a subset of US-ASCII
+    private static Charset eciCharset(int designator) {
+        if (designator == 170)
+            return StandardCharsets.US_ASCII;
+
+        String name = designator < ECI_CHARSET_NAMES.length ? ECI_CHARSET_NAMES[designator] : null;
+        if (name == null)
+            throw new RuntimeException("Unsupported ECI " + designator);
+        if (ECI_CHARSETS[designator] == null)
+            throw new RuntimeException("ECI " + designator + " (" + name + ") is not supported by this JVM");
+        return ECI_CHARSETS[designator];
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length)
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+        return scratch;
+    }
+}
@@ -0,0 +1,91 @@
+package hr.fer.masters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Decodes the codewords of one QR symbol read in transmission order into its text payload
+public class QRSymbolDecoder {
+
+    private static final ThreadLocal<QRPayloadDecoder> PAYLOAD_DECODERS = ThreadLocal.withInitial(QRPayloadDecoder::new);
+    private static final ThreadLocal<StringBuilder> PAYLOAD_TEXT = ThreadLocal.withInitial(StringBuilder::new);
+
+    // With level == null the codewords are taken to be a single version 1 block whose error correction codeword count
+    // follows from the byte mode character count
+    public static QRBlockStructure structureFor(int[] codewords, int version, ErrorCorrectionLevel level) {
+        return structureFor(codewords.length, codewords.length > 0 ? codewords[0] : 0, codewords.length > 1 ? codewords[1] : 0, version, level);
+    }
+
+    public static QRBlockStructure structureFor(int codewordCount, int firstCodeword, int secondCodeword, int version, ErrorCorrectionLevel level) {
+        if (level != null) {
+            QRBlockStructure structure = QRBlockStructure.of(version, level);
+            if (codewordCount != structure.getTotalCodewords())
+                throw new RuntimeException("Expected " + structure.getTotalCodewords() + " codewords for version " + version + "-" + level);
+            return structure;
+        }
+
+        if (codewordCount != 26 || (firstCodeword >> 4) != 0b0100)
+            throw new RuntimeException("Not in byte format or not version 1");
+
+        int dataLen = 2 + (((firstCodeword & 0xF) << 4) | (secondCodeword >> 4));
+        return new QRBlockStructure(1, codewordCount, codewordCount - dataLen, 1);
+    }
+
+    public static String decode(int[] codewords, int version, ErrorCorrectionLevel level) {
+        QRBlockStructure structure = structureFor(codewords, version, level);
+        int[] dataCodewords = ReedSolomonDecoding.decode(codewords, structure);
+        return payload(dataCodewords, structure.getVersion());
+    }
+
+    public static String decode(byte[] codewords, int version, ErrorCorrectionLevel level) {
+        return decode(ByteBuffer.wrap(codewords), version, level);
+    }
+
+    // Decodes the raw codeword bytes codewords[position, limit) without copying them to an intermediate array; the
+    // buffer's position is left unchanged. Works on heap, direct and memory-mapped buffers alike.
+    public static String decode(ByteBuffer codewords, int version, ErrorCorrectionLevel level) {
+        int position = codewords.position();
+        int count = codewords.remaining();
+        QRBlockStructure structure = structureFor(count,
+                count > 0 ? codewords.get(position) & 0xFF : 0, count > 1 ? codewords.get(position + 1) & 0xFF : 0, version, level);
+
+        int[] dataCodewords = new int[structure.getDataCodewords()];
+        DecodeResult result = ReedSolomonDecoding.decode(codewords, structure, dataCodewords, new DecoderWorkspace(GaloisField.GF256, structure.getEcCodewordsPerBlock()));
+        if (result.isUncorrectable())
+            throw new RuntimeException("Too many errors to correct");
+        return payload(dataCodewords, structure.getVersion());
+    }
+
+    // Maps a file of raw codeword bytes read-only into memory
+    public static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // Codewords from a string of '0'/'1' characters, 8 bits per codeword, most significant bit first
+    public static int[] parseBits(String QRBits) {
+        int len = QRBits.length() / 8;
+
+        int[] codewords = new int[len];
+        for (int i = 0, QRPointer = 0; i < len; i++) {
+            int codeword = 0;
+            for (int j = 0; j < 8; j++, QRPointer++) {
+                codeword = (codeword << 1) | (QRBits.charAt(QRPointer) == '1' ? 1 : 0);
+            }
+            codewords[i] = codeword;
+        }
+
+        return codewords;
+    }
+
+    // Text of the data codewords, parsed by a per thread QRPayloadDecoder
+    public static String payload(int[] dataCodewords, int version) {
+        StringBuilder sb = PAYLOAD_TEXT.get();
+        sb.setLength(0);
+        return PAYLOAD_DECODERS.get().decode(dataCodewords, version, sb).toString();
+    }
+}
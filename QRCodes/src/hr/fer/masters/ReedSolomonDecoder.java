@@ -0,0 +1,20 @@
+package hr.fer.masters;
+
+// Error locator step of ReedSolomonDecoding.errorCorrection; syndromes, root search and error magnitudes are shared
+public interface ReedSolomonDecoder {
+
+    // Computes the error locator Lambda(x) with Lambda(0) = 1 from the syndromes S_0, ..., S_(parityCheckSymbols-1).
+    // The returned buffer belongs to the workspace and is only valid until its next use.
+    PolynomialBuffer errorLocator(GaloisField GF, int[] syndromes, int parityCheckSymbols, DecoderWorkspace workspace);
+
+    // Corrects codeword[0, length) in place with this decoder
+    default DecodeResult errorCorrection(GaloisField GF, int[] codeword, int length, int parityCheckSymbols, int FCR, DecoderWorkspace workspace) {
+        return ReedSolomonDecoding.errorCorrection(GF, codeword, length, parityCheckSymbols, FCR, workspace, this);
+    }
+
+    // Errors-and-erasures correction of codeword[0, length) with this decoder, see ReedSolomonDecoding
+    default DecodeResult errorCorrection(GaloisField GF, int[] codeword, int length, int[] erasures, int erasureCount, int parityCheckSymbols, int FCR, DecoderWorkspace workspace) {
+        return ReedSolomonDecoding.errorCorrection(GF, codeword, length, erasures, erasureCount, parityCheckSymbols, FCR, workspace, this);
+    }
+
+}
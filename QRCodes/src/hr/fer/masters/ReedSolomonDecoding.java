@@ -1,28 +1,43 @@
 package hr.fer.masters;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.ByteBuffer;
 
 public class ReedSolomonDecoding {
+
+    // Decoder used for the error locator step unless one is passed explicitly; -Dqrcodes.decoder=reference selects the
+    // original iterative algorithm
+    private static volatile ReedSolomonDecoder defaultDecoder = "reference".equals(System.getProperty("qrcodes.decoder"))
+            ? new ReferenceDecoder()
+            : new BerlekampMasseyDecoder();
+
+    public static ReedSolomonDecoder getDefaultDecoder() {
+        return defaultDecoder;
+    }
+
+    public static void setDefaultDecoder(ReedSolomonDecoder decoder) {
+        defaultDecoder = decoder;
+    }
+
+    // Receives stage timings, error counts and failures from every errorCorrection call, on all threads
+    private static volatile DecodeInstrumentation instrumentation = DecodeInstrumentation.NONE;
+
+    public static DecodeInstrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    public static void setInstrumentation(DecodeInstrumentation instrumentation) {
+        ReedSolomonDecoding.instrumentation = instrumentation == null ? DecodeInstrumentation.NONE : instrumentation;
+    }
+
     // starting power usually 1 but 0 for QR codes
     // parity check symbols = 2t = n - k
     // FCR - first consecutive root - usually = 1, but = 0 for QR codes
     public static MessagePolynomial calculateGeneratorPolynomial(GaloisField GF, int parityCheckSymbols, int FCR) {
-        int alpha = GF.toIntegerRepresentation(
-                GF.subtract(
-                        Polynomial.ZERO,
-                        GF.toPolynomialRepresentation(GF.toIntegerRepresentation(FCR))
-                )
-        );
+        int alpha = GF.negate(GF.toIntegerRepresentation(FCR));
         MessagePolynomial generator = new MessagePolynomial(GF, alpha, 1, 0);
 
         for(int i = FCR + 1; i < parityCheckSymbols + FCR; i++) {
-            alpha = GF.toIntegerRepresentation(
-                    GF.subtract(
-                            Polynomial.ZERO,
-                            GF.toPolynomialRepresentation(GF.toIntegerRepresentation(i))
-                    )
-            );
+            alpha = GF.negate(GF.toIntegerRepresentation(i));
 
             generator = MessagePolynomial.multiply(generator, new MessagePolynomial(GF, alpha, 1, 0));
         }
@@ -30,148 +45,406 @@ public class ReedSolomonDecoding {
         return generator;
     }
 
-    // n - k = 2t = parityCheckSymbols
+    // n - k = 2t = parityCheckSymbols. The syndromes are computed once, by isCodeword, and reused for the correction.
     public static MessagePolynomial errorCorrection(GaloisField GF, MessagePolynomial receivedCodeword, int parityCheckSymbols, int FCR) {
-        // Step 1 : Calculate syndromes as R(alpha^i) for i = 0, ..., parityCheckSymbols-1
-        int[] syndromes = new int[parityCheckSymbols];
-        boolean allZero = true;
-        for(int i = FCR; i < parityCheckSymbols + FCR; i++) {
-            int test = GF.toIntegerRepresentation(i);
-            syndromes[i - FCR] = receivedCodeword.evaluate(GF.toIntegerRepresentation(i));
-            if (syndromes[i - FCR] != 0)
-                allZero = false;
+        int[] codeword = new int[receivedCodeword.getDegree() + 1];
+        receivedCodeword.copyCoefficients(codeword);
+
+        DecoderWorkspace workspace = new DecoderWorkspace(GF, parityCheckSymbols);
+        if (isCodeword(GF, codeword, codeword.length, parityCheckSymbols, FCR, workspace))
+            return receivedCodeword;
+
+        DecodeResult result = errorCorrectionFromSyndromes(GF, codeword, codeword.length, parityCheckSymbols, FCR, workspace);
+        if (result.isUncorrectable())
+            throw new RuntimeException("Too many errors to correct");
+        if (result.isClean())
+            return receivedCodeword;
+
+        return new MessagePolynomial(GF, codeword);
+    }
+
+    // True if every syndrome of the polynomial is zero; stops at the first nonzero one
+    public static boolean isCodeword(MessagePolynomial codeword, int parityCheckSymbols, int FCR) {
+        GaloisField GF = codeword.getGaloisField();
+        for (int i = 0; i < parityCheckSymbols; i++) {
+            if (codeword.evaluate(GF.exp(i + FCR)) != 0)
+                return false;
         }
+        return true;
+    }
+
+    // Validity check for codeword[0, length): computes all syndromes into the workspace in one pass over the codeword
+    // and returns true if they are all zero. Afterwards the workspace holds the syndromes for errorCorrection.
+    public static boolean isCodeword(GaloisField GF, int[] codeword, int length, int parityCheckSymbols, int FCR, DecoderWorkspace workspace) {
+        int[] points = workspace.syndromePoints;
+        int[] syndromes = workspace.syndromes;
+        for (int i = 0; i < parityCheckSymbols; i++) {
+            points[i] = GF.exp(i + FCR);
+        }
+        GF.evaluateAll(codeword, length, points, parityCheckSymbols, syndromes);
+        return isZero(syndromes, parityCheckSymbols);
+    }
 
-        if(allZero)
+    // Errors-and-erasures correction; erasurePositions are the powers of x of the coefficients known to be unreliable
+    public static MessagePolynomial errorCorrection(GaloisField GF, MessagePolynomial receivedCodeword, int[] erasurePositions, int parityCheckSymbols, int FCR) {
+        int[] codeword = new int[receivedCodeword.getDegree() + 1];
+        receivedCodeword.copyCoefficients(codeword);
+
+        DecodeResult result = errorCorrection(GF, codeword, codeword.length, erasurePositions, erasurePositions.length, parityCheckSymbols, FCR, new DecoderWorkspace(GF, parityCheckSymbols));
+        if (result.isUncorrectable())
+            throw new RuntimeException("Too many errors to correct");
+        if (result.isClean())
             return receivedCodeword;
 
-        // Step 2 : Error locator polynomial
+        return new MessagePolynomial(GF, codeword);
+    }
 
-        // start at myu = -1 for index 0 in these lists
-        List<MessagePolynomial> omega = new ArrayList<>();
-        List <Integer> dmyu = new ArrayList<>();
-        List <Integer> hmyu = new ArrayList<>();
+    // De-interleaves the codewords of a QR symbol, corrects every block and returns the data codewords in order
+    public static int[] decode(int[] codewords, QRBlockStructure structure) {
+        int[] dataCodewords = new int[structure.getDataCodewords()];
+        DecodeResult result = decode(codewords, structure, dataCodewords, new DecoderWorkspace(GaloisField.GF256, structure.getEcCodewordsPerBlock()));
+        if (result.isUncorrectable())
+            throw new RuntimeException("Too many errors to correct");
+        return dataCodewords;
+    }
 
-        omega.add(new MessagePolynomial(GF, new int[]{1}));
-        dmyu.add(1);
-        hmyu.add(0);
+    // Writes the corrected data codewords to dataCodewords and returns the total number of corrected codewords. Stops at
+    // the first uncorrectable block, in which case dataCodewords is incomplete.
+    public static DecodeResult decode(int[] codewords, QRBlockStructure structure, int[] dataCodewords, DecoderWorkspace workspace) {
+        return decode(codewords, structure, null, 0, dataCodewords, workspace);
+    }
 
-        omega.add(new MessagePolynomial(GF, new int[]{1}));
-        dmyu.add(syndromes[0]);
-        hmyu.add(0);
+    // Errors-and-erasures decoding of a QR symbol; erasures[0, erasureCount) are indices into codewords of symbols known
+    // to be unreadable. Every erasure costs one parity check symbol of its block instead of the two an unknown error needs.
+    public static DecodeResult decode(int[] codewords, QRBlockStructure structure, int[] erasures, int erasureCount, int[] dataCodewords, DecoderWorkspace workspace) {
+        if (codewords.length != structure.getTotalCodewords())
+            throw new RuntimeException("Expected " + structure.getTotalCodewords() + " codewords");
 
-        for (int myu = 0; myu < parityCheckSymbols; myu++) {
-            MessagePolynomial newOmega;
-            int newDmyu = 0, newHmyu = 0;
+        DecodeResult result = DecodeResult.CLEAN;
+        for (int b = 0; b < structure.getBlockCount() && !result.isUncorrectable(); b++) {
+            result = DecodeResult.combine(result, decodeBlock(codewords, structure, b, erasures, erasureCount, dataCodewords, workspace));
+        }
+        return result;
+    }
 
-            if (dmyu.get(myu + 1) == 0) {
-                newOmega = omega.get(myu + 1);
-                newHmyu = hmyu.get(myu + 1);
-            } else {
-                int maxRo = myu - 1;
-                int maxVal = Integer.MIN_VALUE;
+    // Gathers one block from the interleaved codewords, corrects it and writes its data codewords to dataCodewords
+    public static DecodeResult decodeBlock(int[] codewords, QRBlockStructure structure, int b, int[] dataCodewords, DecoderWorkspace workspace) {
+        return decodeBlock(codewords, structure, b, null, 0, dataCodewords, workspace);
+    }
+
+    public static DecodeResult decodeBlock(int[] codewords, QRBlockStructure structure, int b, int[] erasures, int erasureCount, int[] dataCodewords, DecoderWorkspace workspace) {
+        int length = structure.getBlockLength(b);
+        int[] block = workspace.blockBuffer(length);
+
+        // Codeword k of the block (transmission order) is the coefficient of x^(length - 1 - k)
+        for (int k = 0; k < length; k++) {
+            block[length - 1 - k] = codewords[structure.getInterleavedIndex(b, k)];
+        }
 
-                for (int ro = myu - 1; ro >= -1; ro--) {
-                    if (dmyu.get(ro + 1) == 0)
-                        continue;
+        int blockErasures = blockErasures(structure, b, erasures, erasureCount, workspace.erasurePositions);
+        if (blockErasures < 0)
+            return DecodeResult.UNCORRECTABLE;
 
-                    int newVal = ro - hmyu.get(ro + 1);
-                    if (maxVal < newVal) {
-                        maxRo = ro;
-                        maxVal = newVal;
+        DecodeResult result = errorCorrection(GaloisField.GF256, block, length, workspace.erasurePositions, blockErasures,
+                structure.getEcCodewordsPerBlock(), QRBlockStructure.FCR, workspace);
+        if (result.isUncorrectable())
+            return result;
+
+        int offset = structure.getBlockDataOffset(b);
+        for (int k = 0; k < structure.getBlockDataCodewords(b); k++) {
+            dataCodewords[offset + k] = block[length - 1 - k];
+        }
+        return result;
+    }
+
+    // Same as decode(int[], ...) with the codewords read directly as bytes from codewords[position, limit)
+    public static DecodeResult decode(ByteBuffer codewords, QRBlockStructure structure, int[] dataCodewords, DecoderWorkspace workspace) {
+        return decode(codewords, structure, null, 0, dataCodewords, workspace);
+    }
+
+    public static DecodeResult decode(ByteBuffer codewords, QRBlockStructure structure, int[] erasures, int erasureCount, int[] dataCodewords, DecoderWorkspace workspace) {
+        if (codewords.remaining() != structure.getTotalCodewords())
+            throw new RuntimeException("Expected " + structure.getTotalCodewords() + " codewords");
+
+        DecodeResult result = DecodeResult.CLEAN;
+        for (int b = 0; b < structure.getBlockCount() && !result.isUncorrectable(); b++) {
+            result = DecodeResult.combine(result, decodeBlock(codewords, structure, b, erasures, erasureCount, dataCodewords, workspace));
+        }
+        return result;
+    }
+
+    public static DecodeResult decodeBlock(ByteBuffer codewords, QRBlockStructure structure, int b, int[] dataCodewords, DecoderWorkspace workspace) {
+        return decodeBlock(codewords, structure, b, null, 0, dataCodewords, workspace);
+    }
+
+    public static DecodeResult decodeBlock(ByteBuffer codewords, QRBlockStructure structure, int b, int[] erasures, int erasureCount, int[] dataCodewords, DecoderWorkspace workspace) {
+        int length = structure.getBlockLength(b);
+        int[] block = workspace.blockBuffer(length);
+
+        int position = codewords.position();
+        for (int k = 0; k < length; k++) {
+            block[length - 1 - k] = codewords.get(position + structure.getInterleavedIndex(b, k)) & 0xFF;
+        }
+
+        int blockErasures = blockErasures(structure, b, erasures, erasureCount, workspace.erasurePositions);
+        if (blockErasures < 0)
+            return DecodeResult.UNCORRECTABLE;
+
+        DecodeResult result = errorCorrection(GaloisField.GF256, block, length, workspace.erasurePositions, blockErasures,
+                structure.getEcCodewordsPerBlock(), QRBlockStructure.FCR, workspace);
+        if (result.isUncorrectable())
+            return result;
+
+        int offset = structure.getBlockDataOffset(b);
+        for (int k = 0; k < structure.getBlockDataCodewords(b); k++) {
+            dataCodewords[offset + k] = block[length - 1 - k];
+        }
+        return result;
+    }
+
+    // Collects the erasures of block b as powers of x within the block; returns their count, or -1 if there are more
+    // than the block has parity check symbols
+    private static int blockErasures(QRBlockStructure structure, int b, int[] erasures, int erasureCount, int[] positions) {
+        int length = structure.getBlockLength(b);
+        int count = 0;
+        for (int i = 0; i < erasureCount; i++) {
+            if (structure.getBlockOf(erasures[i]) != b)
+                continue;
+            if (count == positions.length)
+                return -1;
+            positions[count++] = length - 1 - structure.getPositionInBlock(erasures[i]);
+        }
+        return count;
+    }
+
+    // Corrects codeword[0, length) in place with the default decoder
+    public static DecodeResult errorCorrection(GaloisField GF, int[] codeword, int length, int parityCheckSymbols, int FCR, DecoderWorkspace workspace) {
+        return errorCorrection(GF, codeword, length, parityCheckSymbols, FCR, workspace, defaultDecoder);
+    }
+
+    // Corrects codeword[0, length) in place, coefficient i belonging to x^i
+    public static DecodeResult errorCorrection(GaloisField GF, int[] codeword, int length, int parityCheckSymbols, int FCR, DecoderWorkspace workspace, ReedSolomonDecoder decoder) {
+        return errorCorrection(GF, codeword, length, null, 0, parityCheckSymbols, FCR, workspace, decoder);
+    }
+
+    // Errors-and-erasures correction with the default decoder
+    public static DecodeResult errorCorrection(GaloisField GF, int[] codeword, int length, int[] erasures, int erasureCount, int parityCheckSymbols, int FCR, DecoderWorkspace workspace) {
+        return errorCorrection(GF, codeword, length, erasures, erasureCount, parityCheckSymbols, FCR, workspace, defaultDecoder);
+    }
+
+    // Corrects codeword[0, length) in place given erasures[0, erasureCount), the powers of x of the coefficients known to
+    // be unreliable. Corrects e errors and r erasures as long as 2e + r <= parityCheckSymbols. Beyond that the decoder
+    // either detects it, returning UNCORRECTABLE with the codeword as received, or miscorrects into another codeword:
+    // a locator of too high a degree, fewer roots than its degree, a zero derivative at a root or a result that fails
+    // the syndrome check are all reported instead of thrown. CORRECTED counts the symbols whose value changed.
+    public static DecodeResult errorCorrection(GaloisField GF, int[] codeword, int length, int[] erasures, int erasureCount, int parityCheckSymbols, int FCR, DecoderWorkspace workspace, ReedSolomonDecoder decoder) {
+        return errorCorrection(GF, codeword, length, erasures, erasureCount, parityCheckSymbols, FCR, workspace, decoder, false);
+    }
+
+    // errorCorrection with the default decoder and no erasures, for a codeword whose syndromes the caller has already
+    // written to workspace.syndromes; see DecodingSession
+    static DecodeResult errorCorrectionFromSyndromes(GaloisField GF, int[] codeword, int length, int parityCheckSymbols, int FCR, DecoderWorkspace workspace) {
+        return errorCorrection(GF, codeword, length, null, 0, parityCheckSymbols, FCR, workspace, defaultDecoder, true);
+    }
+
+    private static DecodeResult errorCorrection(GaloisField GF, int[] codeword, int length, int[] erasures, int erasureCount, int parityCheckSymbols, int FCR,
+                                                DecoderWorkspace workspace, ReedSolomonDecoder decoder, boolean syndromesKnown) {
+        if (!workspace.isCompatible(GF, parityCheckSymbols))
+            throw new RuntimeException("Workspace not compatible");
+
+        DecodeInstrumentation instrumentation = ReedSolomonDecoding.instrumentation;
+        DecodeStage stage = DecodeStage.SYNDROMES;
+        long time = instrumentation == DecodeInstrumentation.NONE ? 0 : System.nanoTime();
+
+        try {
+            // Step 1 : Calculate syndromes as R(alpha^i) for i = FCR, ..., parityCheckSymbols+FCR-1; a clean codeword, the
+            // common case, is returned untouched right away
+            boolean clean = syndromesKnown
+                    ? isZero(workspace.syndromes, parityCheckSymbols)
+                    : isCodeword(GF, codeword, length, parityCheckSymbols, FCR, workspace);
+            time = lap(instrumentation, stage, time);
+            if (clean) {
+                instrumentation.decoded(0);
+                return DecodeResult.CLEAN;
+            }
+            int[] syndromes = workspace.syndromes;
+
+            // Step 2 : Error locator polynomial, combined with the erasure locator Gamma(x) = prod(1 - alpha^position x).
+            // The errors are located from the Forney syndromes S(x) * Gamma(x) mod x^(2t), whose coefficients from the
+            // erasure count on depend only on the unknown errors.
+            stage = DecodeStage.LOCATOR;
+            if (erasureCount > parityCheckSymbols)
+                return uncorrectable(instrumentation, stage, time);
+
+            PolynomialBuffer locator;
+            if (erasureCount == 0) {
+                locator = decoder.errorLocator(GF, syndromes, parityCheckSymbols, workspace);
+                if (2 * locator.getDegree() > parityCheckSymbols)
+                    return uncorrectable(instrumentation, stage, time);
+            } else {
+                PolynomialBuffer gamma = workspace.erasureLocator.setMonomial(1, 0);
+                for (int i = 0; i < erasureCount; i++) {
+                    if (erasures[i] < 0 || erasures[i] >= length)
+                        throw new RuntimeException("Erasure position out of range");
+                    gamma.multiplyByLinear(GF.toIntegerRepresentation(erasures[i]));
+                }
+
+                int[] forneySyndromes = workspace.forneySyndromes;
+                int remaining = parityCheckSymbols - erasureCount;
+                for (int i = 0; i < remaining; i++) {
+                    int syndrome = 0;
+                    for (int k = 0; k <= erasureCount; k++) {
+                        syndrome = GF.add(syndrome, GF.mul(gamma.getCoefficient(k), syndromes[i + erasureCount - k]));
                     }
+                    forneySyndromes[i] = syndrome;
                 }
 
-                newOmega = MessagePolynomial.add(
-                        omega.get(myu + 1),
-                        MessagePolynomial.multiply(
-                                new MessagePolynomial(GF,
-                                        GF.toIntegerRepresentation(GF.multiply(
-                                                GF.toPolynomialRepresentation(dmyu.get(myu + 1)),
-                                                GF.inverse(GF.toPolynomialRepresentation(dmyu.get(maxRo + 1)))
-                                        )),
-                                        myu-maxRo),
-                                omega.get(maxRo + 1)
-                        )
-                );
-
-                newHmyu = Math.max(hmyu.get(myu + 1), hmyu.get(maxRo + 1) + myu - maxRo);
-                int a = 5;
+                locator = workspace.combinedLocator.clear();
+                if (remaining == 0) {
+                    locator.set(gamma);
+                } else {
+                    PolynomialBuffer errorLocator = decoder.errorLocator(GF, forneySyndromes, remaining, workspace);
+                    if (2 * errorLocator.getDegree() > remaining)
+                        return uncorrectable(instrumentation, stage, time);
+
+                    for (int k = 0; k <= errorLocator.getDegree(); k++) {
+                        locator.addScaledShifted(gamma, errorLocator.getCoefficient(k), k);
+                    }
+                }
+            }
+            PolynomialBuffer omegaR = workspace.reversedLocator.setReversed(locator);
+            time = lap(instrumentation, stage, time);
+
+            // Step 3: Find error locations zi, stored as powers of alpha; a locator of degree v must have exactly v
+            // distinct roots among the codeword's positions
+            stage = DecodeStage.ROOT_SEARCH;
+            int[] zisAsAlphaPower = workspace.errorPositions;
+            int zisCount = chienSearch(GF, omegaR, length, workspace.chienTerms, workspace.chienSteps, zisAsAlphaPower);
+            if (zisCount != locator.getDegree())
+                return uncorrectable(instrumentation, stage, time);
+            time = lap(instrumentation, stage, time);
+
+            // Step 4: Find error values for positions with the Forney algorithm
+            stage = DecodeStage.MAGNITUDES;
+            int[] errorValues = workspace.errorValues;
+            if (!forney(GF, syndromes, locator, zisAsAlphaPower, zisCount, FCR, workspace.evaluator, workspace.locatorDerivative, errorValues))
+                return uncorrectable(instrumentation, stage, time);
+            time = lap(instrumentation, stage, time);
+
+            // Step 5: Correct the errors; an erased symbol may well have been read correctly. The result must be a
+            // codeword, otherwise the corrections are undone.
+            stage = DecodeStage.CORRECTION;
+            int corrected = 0;
+            for (int i = 0; i < zisCount; i++) {
+                if (errorValues[i] == 0)
+                    continue;
+                codeword[zisAsAlphaPower[i]] = GF.subtract(codeword[zisAsAlphaPower[i]], errorValues[i]);
+                corrected++;
             }
 
-            if (myu < parityCheckSymbols - 1) {
-                newDmyu = syndromes[myu + 2 - 1];
-                for (int i = 0; i < newHmyu; i++) {
-                    newDmyu = GF.toIntegerRepresentation(GF.add(
-                            GF.toPolynomialRepresentation(newDmyu),
-                            GF.multiply(
-                                    GF.toPolynomialRepresentation(newOmega.getCoefficient(i + 1)),
-                                    GF.toPolynomialRepresentation(syndromes[myu + 1 - 1 - i])
-                            )
-                    ));
+            if (!isCodeword(GF, codeword, length, parityCheckSymbols, FCR, workspace)) {
+                for (int i = 0; i < zisCount; i++) {
+                    codeword[zisAsAlphaPower[i]] = GF.add(codeword[zisAsAlphaPower[i]], errorValues[i]);
                 }
+                return uncorrectable(instrumentation, stage, time);
             }
+            lap(instrumentation, stage, time);
 
-            omega.add(newOmega);
-            dmyu.add(newDmyu);
-            hmyu.add(newHmyu);
+            instrumentation.decoded(corrected);
+            return DecodeResult.corrected(corrected);
+        } catch (RuntimeException e) {
+            instrumentation.failed(stage, e);
+            throw e;
         }
+    }
 
-        int[] omegaRCoefficients = new int[omega.get(omega.size() - 1).getDegree() + 1];
-        for (int i = 0; i < omegaRCoefficients.length; i++) {
-            omegaRCoefficients[i] = omega.get(omega.size() - 1).getCoefficient(omegaRCoefficients.length - 1 - i);
+    private static boolean isZero(int[] syndromes, int count) {
+        for (int i = 0; i < count; i++) {
+            if (syndromes[i] != 0)
+                return false;
         }
+        return true;
+    }
 
-        MessagePolynomial omegaR = new MessagePolynomial(GF, omegaRCoefficients);
+    private static DecodeResult uncorrectable(DecodeInstrumentation instrumentation, DecodeStage stage, long start) {
+        lap(instrumentation, stage, start);
+        instrumentation.uncorrectable(stage);
+        return DecodeResult.UNCORRECTABLE;
+    }
 
-        // Step 3: Find error locations zi
-        List<Integer> zis = new ArrayList<>();
-        for(int i = 0; i < (int)(Math.pow(GF.getP(), GF.getN())); i++) {
-            int pointOfEval = GF.toIntegerRepresentation(i);
-            int eval = omegaR.evaluate(pointOfEval);
+    // Reports the stage that started at start and returns the current time, without reading the clock when there is
+    // no instrumentation
+    private static long lap(DecodeInstrumentation instrumentation, DecodeStage stage, long start) {
+        if (instrumentation == DecodeInstrumentation.NONE)
+            return 0;
 
-            if (eval == 0)
-                zis.add(pointOfEval);
+        long now = System.nanoTime();
+        instrumentation.stage(stage, now - start);
+        return now;
+    }
 
-            if (zis.size() == omegaR.getDegree())
-                break;
+    // Forney algorithm, O(t^2): with the error evaluator Omega(x) = S(x) * Lambda(x) mod x^v, the magnitude of the error
+    // at X = alpha^position is e = -X^(1-FCR) * Omega(X^-1) / Lambda'(X^-1). Lambda is the locator with Lambda(0) = 1.
+    // Returns false, leaving errorValues incomplete, if Lambda' vanishes at one of the positions, which a locator of
+    // distinct roots never does.
+    public static boolean forney(GaloisField GF, int[] syndromes, PolynomialBuffer locator, int[] positions, int count, int FCR,
+                              PolynomialBuffer evaluator, PolynomialBuffer locatorDerivative, int[] errorValues) {
+        int locatorDegree = locator.getDegree();
+
+        evaluator.clear();
+        for (int i = 0; i < locatorDegree && i < syndromes.length; i++) {
+            int coefficient = 0;
+            for (int k = 0; k <= i; k++) {
+                coefficient = GF.add(coefficient, GF.mul(syndromes[i - k], locator.getCoefficient(k)));
+            }
+            evaluator.setCoefficient(i, coefficient);
         }
 
-        List<Integer> zisAsAlphaPower = new ArrayList<>();
-        for(int zi : zis) {
-            zisAsAlphaPower.add(GF.toPowerRepresentation(zi));
+        // Formal derivative, k * Lambda_k where k is taken modulo the characteristic
+        locatorDerivative.clear();
+        for (int k = 1; k <= locatorDegree; k++) {
+            int coefficient = 0;
+            for (int j = 0; j < k % GF.getP(); j++) {
+                coefficient = GF.add(coefficient, locator.getCoefficient(k));
+            }
+            locatorDerivative.setCoefficient(k - 1, coefficient);
         }
 
-        // Step 4: Find error values for positions
-        int[][] matrixA = new int[zis.size()][zis.size()];
-        int[] vectorB = new int[zis.size()];
-        for (int i = 0; i < zis.size(); i++) {
-            for (int j = 0; j < zis.size(); j++) {
-                matrixA[i][j] = GF.toIntegerRepresentation(zisAsAlphaPower.get(j) * (i + 1));
-            }
+        for (int i = 0; i < count; i++) {
+            int xInverse = GF.toIntegerRepresentation(-positions[i]);
+            int denominator = locatorDerivative.evaluate(xInverse);
+            if (denominator == 0)
+                return false;
 
-            vectorB[i] = syndromes[i];
+            int numerator = GF.mul(GF.toIntegerRepresentation(positions[i] * (1 - FCR)), evaluator.evaluate(xInverse));
+            errorValues[i] = GF.negate(GF.div(numerator, denominator));
         }
+        return true;
+    }
 
-        int[] errorValues = MatrixHelper.solveLinearSystem(GF, matrixA, vectorB);
+    // Chien search for the roots alpha^i, i < length, of the reversed error locator omegaR(x) = sum(R_k x^k).
+    // Keeps one running term R_k * alpha^(i*k) per coefficient and advances it with a single multiply by alpha^k per
+    // position; stops as soon as deg(omegaR) roots were found. Returns the number of roots, written to positions.
+    public static int chienSearch(GaloisField GF, PolynomialBuffer omegaR, int length, int[] terms, int[] steps, int[] positions) {
+        int degree = omegaR.getDegree();
+        for (int k = 0; k <= degree; k++) {
+            terms[k] = omegaR.getCoefficient(k);
+            steps[k] = GF.toIntegerRepresentation(k);
+        }
 
-        // Step 5: Correct the errors
-        int[] messageCoefficients = new int[receivedCodeword.getDegree() + 1];
-        int zisPointer = 0;
-        for (int i = 0; i < messageCoefficients.length; i++) {
-            if (zisPointer < zis.size() && i == zisAsAlphaPower.get(zisPointer)) {
-                messageCoefficients[i] = GF.toIntegerRepresentation(GF.add(
-                        GF.toPolynomialRepresentation(receivedCodeword.getCoefficient(i)),
-                        GF.toPolynomialRepresentation(errorValues[zisPointer])
-                ));
-                zisPointer++;
-                continue;
+        int count = 0;
+        for (int i = 0; i < length && count < degree; i++) {
+            int eval = 0;
+            for (int k = 0; k <= degree; k++) {
+                eval = GF.add(eval, terms[k]);
+                terms[k] = GF.mul(terms[k], steps[k]);
             }
 
-            messageCoefficients[i] = receivedCodeword.getCoefficient(i);
+            if (eval == 0)
+                positions[count++] = i;
         }
 
-        return new MessagePolynomial(GF, messageCoefficients);
+        return count;
     }
 
 }
@@ -0,0 +1,60 @@
+package hr.fer.masters;
+
+public class ReedSolomonEncoding {
+
+    // Splits the data codewords into the blocks of the structure, appends each block's error correction codewords and
+    // returns all codewords interleaved in transmission order
+    public static int[] encode(int[] dataCodewords, QRBlockStructure structure) {
+        if (dataCodewords.length != structure.getDataCodewords())
+            throw new RuntimeException("Expected " + structure.getDataCodewords() + " data codewords");
+
+        int ecCodewords = structure.getEcCodewordsPerBlock();
+        int[] codewords = new int[structure.getTotalCodewords()];
+        int[] block = new int[structure.getMaxBlockLength()];
+
+        for (int b = 0; b < structure.getBlockCount(); b++) {
+            int length = structure.getBlockLength(b);
+            int offset = structure.getBlockDataOffset(b);
+
+            // Codeword k of the block (transmission order) is the coefficient of x^(length - 1 - k)
+            for (int k = 0; k < structure.getBlockDataCodewords(b); k++) {
+                block[length - 1 - k] = dataCodewords[offset + k];
+            }
+
+            encode(GaloisField.GF256, block, length, ecCodewords, QRBlockStructure.FCR);
+
+            for (int k = 0; k < length; k++) {
+                codewords[structure.getInterleavedIndex(b, k)] = block[length - 1 - k];
+            }
+        }
+
+        return codewords;
+    }
+
+    // Systematic encoding in place: the data symbols are codeword[parityCheckSymbols, length), coefficient i belonging
+    // to x^i, and the parity symbols are written to codeword[0, parityCheckSymbols) so that the generator polynomial
+    // divides the codeword. Runs the division as an LFSR over the cached generator, one feedback multiply per tap.
+    public static void encode(GaloisField GF, int[] codeword, int length, int parityCheckSymbols, int FCR) {
+        int[] generator = GeneratorPolynomialCache.coefficients(GF, parityCheckSymbols, FCR);
+
+        // The register is kept in codeword[0, parityCheckSymbols), register[i] being the remainder's x^i coefficient
+        for (int i = 0; i < parityCheckSymbols; i++) {
+            codeword[i] = 0;
+        }
+
+        for (int i = length - 1; i >= parityCheckSymbols; i--) {
+            int feedback = GF.add(codeword[i], codeword[parityCheckSymbols - 1]);
+
+            for (int j = parityCheckSymbols - 1; j > 0; j--) {
+                codeword[j] = GF.subtract(codeword[j - 1], GF.mul(feedback, generator[j]));
+            }
+            codeword[0] = GF.negate(GF.mul(feedback, generator[0]));
+        }
+
+        // codeword = data * x^parityCheckSymbols - remainder
+        for (int i = 0; i < parityCheckSymbols; i++) {
+            codeword[i] = GF.negate(codeword[i]);
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+package hr.fer.masters;
+
+// The original iterative error locator algorithm, keeping every intermediate omega; kept as a reference to compare
+// BerlekampMasseyDecoder against
+public class ReferenceDecoder implements ReedSolomonDecoder {
+
+    @Override
+    public PolynomialBuffer errorLocator(GaloisField GF, int[] syndromes, int parityCheckSymbols, DecoderWorkspace workspace) {
+        // start at myu = -1 for index 0 in these arrays
+        PolynomialBuffer[] omega = workspace.omega();
+        int[] dmyu = workspace.dmyu();
+        int[] hmyu = workspace.hmyu();
+
+        omega[0].setMonomial(1, 0);
+        dmyu[0] = 1;
+        hmyu[0] = 0;
+
+        omega[1].setMonomial(1, 0);
+        dmyu[1] = syndromes[0];
+        hmyu[1] = 0;
+
+        for (int myu = 0; myu < parityCheckSymbols; myu++) {
+            PolynomialBuffer newOmega = omega[myu + 2].set(omega[myu + 1]);
+            int newDmyu = 0, newHmyu = 0;
+
+            if (dmyu[myu + 1] == 0) {
+                newHmyu = hmyu[myu + 1];
+            } else {
+                int maxRo = myu - 1;
+                int maxVal = Integer.MIN_VALUE;
+
+                for (int ro = myu - 1; ro >= -1; ro--) {
+                    if (dmyu[ro + 1] == 0)
+                        continue;
+
+                    int newVal = ro - hmyu[ro + 1];
+                    if (maxVal < newVal) {
+                        maxRo = ro;
+                        maxVal = newVal;
+                    }
+                }
+
+                newOmega.addScaledShifted(omega[maxRo + 1], GF.negate(GF.div(dmyu[myu + 1], dmyu[maxRo + 1])), myu - maxRo);
+
+                newHmyu = Math.max(hmyu[myu + 1], hmyu[maxRo + 1] + myu - maxRo);
+            }
+
+            if (myu < parityCheckSymbols - 1) {
+                newDmyu = syndromes[myu + 2 - 1];
+                for (int i = 0; i < newHmyu; i++) {
+                    newDmyu = GF.add(newDmyu, GF.mul(newOmega.getCoefficient(i + 1), syndromes[myu + 1 - 1 - i]));
+                }
+            }
+
+            dmyu[myu + 2] = newDmyu;
+            hmyu[myu + 2] = newHmyu;
+        }
+
+        return omega[parityCheckSymbols + 1];
+    }
+
+}
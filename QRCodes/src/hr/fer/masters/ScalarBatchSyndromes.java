@@ -0,0 +1,38 @@
+package hr.fer.masters;
+
+// Codeword by codeword fallback: gathers each lane and evaluates it at all syndrome points with the field's evaluateAll
+class ScalarBatchSyndromes implements BatchSyndromes {
+
+    private final GaloisField GF;
+    private final int[] points;
+    private final int[] codeword;
+    private final int[] syndromes;
+
+    ScalarBatchSyndromes(GaloisField GF, int[] points, int length) {
+        this.GF = GF;
+        this.points = points.clone();
+        this.codeword = new int[length];
+        this.syndromes = new int[points.length];
+    }
+
+    @Override
+    public int lanes() {
+        return 1;
+    }
+
+    @Override
+    public void check(byte[] symbols, int length, int stride, int count, byte[] flags) {
+        for (int lane = 0; lane < count; lane++) {
+            for (int i = 0; i < length; i++) {
+                codeword[i] = symbols[i * stride + lane] & 0xFF;
+            }
+            GF.evaluateAll(codeword, length, points, points.length, syndromes);
+
+            int any = 0;
+            for (int syndrome : syndromes) {
+                any |= syndrome;
+            }
+            flags[lane] = (byte) (any == 0 ? 0 : 1);
+        }
+    }
+}
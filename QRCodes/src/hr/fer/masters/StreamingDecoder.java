@@ -0,0 +1,358 @@
+package hr.fer.masters;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decodes a stream of QR symbols until EOF: a reader thread parses the input and submits every symbol to a pool of
+// decoding threads, the calling thread writes the results in input order. The queue of pending results is bounded, so
+// the reader blocks instead of buffering the whole input when decoding falls behind.
+public class StreamingDecoder {
+
+    public enum Format {
+        // One symbol per line as a string of '0'/'1' characters
+        TEXT,
+        // Frames of a 2 byte big-endian codeword count followed by that many codeword bytes
+        FRAMED,
+        // Back to back records of exactly as many codeword bytes as the version and level have; requires a level
+        RAW
+    }
+
+    private interface Producer {
+        void produce(ExecutorService workers, BlockingQueue<Future<String>> pending) throws IOException, InterruptedException;
+    }
+
+    private static final Future<String> END_OF_STREAM = CompletableFuture.completedFuture(null);
+
+    // Output line of a symbol with too many errors, the same as for a symbol whose decoding threw
+    private static final String UNCORRECTABLE = "ERROR: Too many errors to correct";
+
+    private final int version;
+    private final ErrorCorrectionLevel level;
+    private final int threads;
+    private final int queueCapacity;
+    private final int statsInterval;
+
+    private final Histogram decodeLatency = new Histogram();
+    private final Histogram cleanLatency = new Histogram();
+    private final Histogram correctionLatency = new Histogram();
+    private final Histogram failedLatency = new Histogram();
+    private final Histogram cachedLatency = new Histogram();
+    private final Histogram endToEndLatency = new Histogram();
+
+    private final ThreadLocal<DecoderWorkspace> workspaces = new ThreadLocal<>();
+
+    private HistogramInstrumentation stageStats;
+    private PayloadCache payloadCache;
+
+    // level == null selects the single block version 1 inference of QRSymbolDecoder
+    public StreamingDecoder(int version, ErrorCorrectionLevel level, int threads, int queueCapacity, int statsInterval) {
+        this.version = version;
+        this.level = level;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.statsInterval = statsInterval;
+    }
+
+    public Histogram getDecodeLatency() {
+        return decodeLatency;
+    }
+
+    // Decode latency of symbols whose syndromes were all zero
+    public Histogram getCleanLatency() {
+        return cleanLatency;
+    }
+
+    // Decode latency of symbols whose errors were corrected
+    public Histogram getCorrectionLatency() {
+        return correctionLatency;
+    }
+
+    // Decode latency of symbols that were uncorrectable or whose decoding threw
+    public Histogram getFailedLatency() {
+        return failedLatency;
+    }
+
+    // Decode latency of symbols answered from the payload cache
+    public Histogram getCachedLatency() {
+        return cachedLatency;
+    }
+
+    public Histogram getEndToEndLatency() {
+        return endToEndLatency;
+    }
+
+    // Printed with the other stats; recording into it is up to whoever installed it with ReedSolomonDecoding.setInstrumentation
+    public void setStageStats(HistogramInstrumentation stageStats) {
+        this.stageStats = stageStats;
+    }
+
+    // Symbols found in the cache skip error correction and payload decoding, the others are added to it after decoding
+    public void setPayloadCache(PayloadCache payloadCache) {
+        this.payloadCache = payloadCache;
+    }
+
+    // Returns the number of symbols processed
+    public long run(InputStream in, Format format, PrintStream out, PrintStream stats) throws IOException {
+        switch (format) {
+            case TEXT: return run((workers, pending) -> readText(in, workers, pending), out, stats);
+            case FRAMED: return run((workers, pending) -> readFramed(in, workers, pending), out, stats);
+            default:
+                int length = recordLength();
+                return run((workers, pending) -> readRaw(in, length, workers, pending), out, stats);
+        }
+    }
+
+    // RAW records straight from a buffer, typically a memory-mapped file; every symbol is decoded from a slice of it
+    public long run(ByteBuffer records, PrintStream out, PrintStream stats) throws IOException {
+        int length = recordLength();
+        return run((workers, pending) -> readRaw(records, length, workers, pending), out, stats);
+    }
+
+    private long run(Producer producer, PrintStream out, PrintStream stats) throws IOException {
+        AtomicInteger workerCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "qr-decoder-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        BlockingQueue<Future<String>> pending = new ArrayBlockingQueue<>(queueCapacity);
+        // Rethrown by the calling thread once the symbols read before it are written
+        Exception[] readFailure = new Exception[1];
+
+        Thread reader = new Thread(() -> {
+            try {
+                producer.produce(workers, pending);
+            } catch (IOException | RuntimeException e) {
+                readFailure[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    pending.put(END_OF_STREAM);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "qr-reader");
+        reader.setDaemon(true);
+
+        long start = System.nanoTime();
+        long processed = 0;
+        reader.start();
+
+        try {
+            while (true) {
+                Future<String> result = pending.take();
+                if (result == END_OF_STREAM)
+                    break;
+
+                try {
+                    out.println(result.get());
+                } catch (ExecutionException e) {
+                    out.println("ERROR: " + e.getCause().getMessage());
+                }
+
+                processed++;
+                if (statsInterval > 0 && processed % statsInterval == 0)
+                    printStats(stats, processed, start);
+            }
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+        }
+
+        out.flush();
+        printStats(stats, processed, start);
+
+        if (readFailure[0] instanceof IOException)
+            throw (IOException) readFailure[0];
+        if (readFailure[0] != null)
+            throw (RuntimeException) readFailure[0];
+        return processed;
+    }
+
+    private void readText(InputStream in, ExecutorService workers, BlockingQueue<Future<String>> pending) throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String QRBits = line.trim();
+            if (QRBits.isEmpty())
+                continue;
+
+            long received = System.nanoTime();
+            pending.put(workers.submit(() -> payloadCache == null
+                    ? decode(QRSymbolDecoder.parseBits(QRBits), received)
+                    : decode(toBytes(QRSymbolDecoder.parseBits(QRBits)), received)));
+        }
+    }
+
+    private void readFramed(InputStream in, ExecutorService workers, BlockingQueue<Future<String>> pending) throws IOException, InterruptedException {
+        DataInputStream data = new DataInputStream(in);
+        while (true) {
+            int length;
+            try {
+                length = data.readUnsignedShort();
+            } catch (EOFException e) {
+                return;
+            }
+
+            byte[] frame = new byte[length];
+            data.readFully(frame);
+
+            long received = System.nanoTime();
+            pending.put(workers.submit(() -> decode(ByteBuffer.wrap(frame), received)));
+        }
+    }
+
+    private int recordLength() {
+        if (level == null)
+            throw new RuntimeException("Raw records need a version and error correction level");
+        return QRBlockStructure.of(version, level).getTotalCodewords();
+    }
+
+    private void readRaw(InputStream in, int length, ExecutorService workers, BlockingQueue<Future<String>> pending) throws IOException, InterruptedException {
+        DataInputStream data = new DataInputStream(in);
+        while (true) {
+            byte[] record = new byte[length];
+            int read = data.readNBytes(record, 0, length);
+            if (read == 0)
+                return;
+            if (read < length)
+                throw new EOFException("Truncated record of " + read + " bytes");
+
+            long received = System.nanoTime();
+            pending.put(workers.submit(() -> decode(ByteBuffer.wrap(record), received)));
+        }
+    }
+
+    private void readRaw(ByteBuffer records, int length, ExecutorService workers, BlockingQueue<Future<String>> pending) throws IOException, InterruptedException {
+        if (records.remaining() % length != 0)
+            throw new IOException("Input is not a whole number of " + length + " byte records");
+
+        for (int offset = records.position(); offset < records.limit(); offset += length) {
+            ByteBuffer record = records.slice(offset, length);
+            long received = System.nanoTime();
+            pending.put(workers.submit(() -> decode(record, received)));
+        }
+    }
+
+    private String decode(int[] codewords, long received) {
+        long start = System.nanoTime();
+        DecodeResult decoded = null;
+        try {
+            QRBlockStructure structure = QRSymbolDecoder.structureFor(codewords, version, level);
+            int[] dataCodewords = new int[structure.getDataCodewords()];
+            DecodeResult result = ReedSolomonDecoding.decode(codewords, structure, dataCodewords, workspace(structure));
+            if (result.isUncorrectable())
+                return UNCORRECTABLE;
+
+            String payload = QRSymbolDecoder.payload(dataCodewords, structure.getVersion());
+            decoded = result;
+            return payload;
+        } finally {
+            record(start, received, decoded);
+        }
+    }
+
+    private String decode(ByteBuffer codewords, long received) {
+        long start = System.nanoTime();
+        DecodeResult decoded = null;
+        boolean cached = false;
+        try {
+            PayloadCache cache = payloadCache;
+            if (cache != null) {
+                PayloadCache.Decoded hit = cache.get(codewords, version, level);
+                if (hit != null) {
+                    cached = true;
+                    if (hit.getResult().isUncorrectable())
+                        return UNCORRECTABLE;
+                    return hit.getPayload();
+                }
+            }
+
+            int position = codewords.position();
+            int count = codewords.remaining();
+            QRBlockStructure structure = QRSymbolDecoder.structureFor(count,
+                    count > 0 ? codewords.get(position) & 0xFF : 0, count > 1 ? codewords.get(position + 1) & 0xFF : 0, version, level);
+            int[] dataCodewords = new int[structure.getDataCodewords()];
+            DecodeResult result = ReedSolomonDecoding.decode(codewords, structure, dataCodewords, workspace(structure));
+            if (result.isUncorrectable()) {
+                if (cache != null)
+                    cache.put(codewords, version, level, result, null);
+                return UNCORRECTABLE;
+            }
+
+            String payload = QRSymbolDecoder.payload(dataCodewords, structure.getVersion());
+            if (cache != null)
+                cache.put(codewords, version, level, result, payload);
+            decoded = result;
+            return payload;
+        } finally {
+            if (cached)
+                recordCached(start, received);
+            else
+                record(start, received, decoded);
+        }
+    }
+
+    private static ByteBuffer toBytes(int[] codewords) {
+        byte[] bytes = new byte[codewords.length];
+        for (int i = 0; i < codewords.length; i++) {
+            bytes[i] = (byte) codewords[i];
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private DecoderWorkspace workspace(QRBlockStructure structure) {
+        DecoderWorkspace workspace = workspaces.get();
+        if (workspace == null || !workspace.isCompatible(GaloisField.GF256, structure.getEcCodewordsPerBlock())) {
+            workspace = new DecoderWorkspace(GaloisField.GF256, structure.getEcCodewordsPerBlock());
+            workspaces.set(workspace);
+        }
+        return workspace;
+    }
+
+    // result is null when the symbol was uncorrectable or its decoding threw
+    private void record(long start, long received, DecodeResult result) {
+        long end = System.nanoTime();
+        decodeLatency.record(end - start);
+        (result == null ? failedLatency : result.isClean() ? cleanLatency : correctionLatency).record(end - start);
+        endToEndLatency.record(end - received);
+    }
+
+    private void recordCached(long start, long received) {
+        long end = System.nanoTime();
+        decodeLatency.record(end - start);
+        cachedLatency.record(end - start);
+        endToEndLatency.record(end - received);
+    }
+
+    private void printStats(PrintStream stats, long processed, long start) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        stats.printf("processed=%d throughput=%.1f/s%n  decode ns: %s%n    clean ns: %s%n    correction ns: %s%n    failed ns: %s%n",
+                processed, seconds > 0 ? processed / seconds : 0, decodeLatency, cleanLatency, correctionLatency, failedLatency);
+        if (payloadCache != null)
+            stats.printf("    cached ns: %s%n  %s%n", cachedLatency, payloadCache);
+        stats.printf("  end-to-end ns: %s%n", endToEndLatency);
+        if (stageStats != null)
+            stats.printf("  %s%n", stageStats.toString().replace(System.lineSeparator(), System.lineSeparator() + "  "));
+        stats.flush();
+    }
+}
@@ -0,0 +1,68 @@
+package hr.fer.masters;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Syndromes of one codeword per byte lane for binary fields of at most 256 elements. Multiplication by the constant
+// syndrome point alpha^j is linear over GF(2), so a * alpha^j = low[a & 0xF] ^ high[a >>> 4] with two 16 entry tables
+// per point, looked up in all lanes at once by a byte shuffle. Horner's rule then costs two shuffles, three logic
+// operations and a load per coefficient for a whole vector of codewords.
+// Needs the jdk.incubator.vector module at run time (--add-modules jdk.incubator.vector) and a preferred species of at
+// least 16 byte lanes to hold a nibble table; CodewordBatch falls back to ScalarBatchSyndromes otherwise.
+class VectorBatchSyndromes implements BatchSyndromes {
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    // False when the preferred vectors are too narrow for the 16 entry nibble tables, e.g. with -XX:MaxVectorSize=8
+    static boolean isSupported() {
+        return SPECIES.length() >= 16;
+    }
+
+    // Products with the low and high nibble for every point, padded to the vector length so that they load as vectors
+    private final byte[][] low;
+    private final byte[][] high;
+
+    VectorBatchSyndromes(GaloisField GF, int[] points) {
+        if (GF.getP() != 2 || GF.getOrder() > 256)
+            throw new RuntimeException("Vector syndromes need a binary field of at most 256 elements");
+        if (!isSupported())
+            throw new RuntimeException("Vector syndromes need at least 16 byte lanes, the preferred species has " + SPECIES.length());
+
+        low = new byte[points.length][SPECIES.length()];
+        high = new byte[points.length][SPECIES.length()];
+        for (int j = 0; j < points.length; j++) {
+            for (int nibble = 0; nibble < 16; nibble++) {
+                low[j][nibble] = (byte) (nibble < GF.getOrder() ? GF.mul(nibble, points[j]) : 0);
+                high[j][nibble] = (byte) ((nibble << 4) < GF.getOrder() ? GF.mul(nibble << 4, points[j]) : 0);
+            }
+        }
+    }
+
+    @Override
+    public int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void check(byte[] symbols, int length, int stride, int count, byte[] flags) {
+        for (int lane = 0; lane < count; lane += SPECIES.length()) {
+            ByteVector any = ByteVector.zero(SPECIES);
+
+            for (int j = 0; j < low.length; j++) {
+                ByteVector lowProducts = ByteVector.fromArray(SPECIES, low[j], 0);
+                ByteVector highProducts = ByteVector.fromArray(SPECIES, high[j], 0);
+
+                ByteVector syndrome = ByteVector.zero(SPECIES);
+                for (int i = length - 1; i >= 0; i--) {
+                    ByteVector product = syndrome.and((byte) 0xF).selectFrom(lowProducts)
+                            .lanewise(VectorOperators.XOR, syndrome.lanewise(VectorOperators.LSHR, 4).selectFrom(highProducts));
+                    syndrome = product.lanewise(VectorOperators.XOR, ByteVector.fromArray(SPECIES, symbols, i * stride + lane));
+                }
+                any = any.or(syndrome);
+            }
+
+            any.intoArray(flags, lane);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Bit-packed arithmetic checked against Polynomial with its integer coefficients reduced modulo 2, for degrees well past
+// one 64 bit word
+public class BinaryPolynomialTest {
+
+    private static Polynomial random(Random random, int degree) {
+        int[] coefficients = new int[degree + 1];
+        for (int i = 0; i < degree; i++) {
+            coefficients[i] = random.nextInt(2);
+        }
+        coefficients[degree] = 1;
+        return new Polynomial(coefficients);
+    }
+
+    private static Polynomial modulo2(Polynomial poly) {
+        int[] coefficients = new int[poly.getDegree() + 1];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = Math.floorMod(poly.getCoefficient(i), 2);
+        }
+        return new Polynomial(coefficients);
+    }
+
+    @Test
+    public void matchesPolynomialArithmeticModulo2() {
+        Random random = new Random(41);
+        for (int trial = 0; trial < 2000; trial++) {
+            Polynomial x = random(random, random.nextInt(200));
+            Polynomial y = random(random, random.nextInt(150));
+            BinaryPolynomial bx = BinaryPolynomial.of(x);
+            BinaryPolynomial by = BinaryPolynomial.of(y);
+
+            assertEquals(x, bx.toPolynomial());
+            assertEquals(x.getDegree(), bx.getDegree());
+            assertEquals(modulo2(Polynomial.add(x, y)), BinaryPolynomial.add(bx, by).toPolynomial());
+            assertEquals(modulo2(Polynomial.multiply(x, y)), BinaryPolynomial.multiply(bx, by).toPolynomial());
+
+            // y is monic, so integer division agrees with division over GF(2) after reduction
+            Polynomial.DivisionResult expected = Polynomial.divide(x, y);
+            BinaryPolynomial.DivisionResult division = BinaryPolynomial.divide(bx, by);
+            assertEquals(modulo2(expected.getResult()), division.getResult().toPolynomial());
+            assertEquals(modulo2(expected.getRemainder()), division.getRemainder().toPolynomial());
+            assertEquals(bx, BinaryPolynomial.add(BinaryPolynomial.multiply(division.getResult(), by), division.getRemainder()));
+
+            assertEquals(Math.floorMod(x.evaluate(1), 2), bx.evaluate(1));
+            assertEquals(x.getCoefficient(0), bx.evaluate(0));
+        }
+    }
+
+    @Test
+    public void longReductionMatchesThePackedPolynomial() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 2000; trial++) {
+            long a = random.nextLong() >>> random.nextInt(64);
+            long modulus = (random.nextLong() >>> random.nextInt(63)) | 1;
+
+            long remainder = BinaryPolynomial.mod(a, modulus);
+            assertEquals(BinaryPolynomial.mod(BinaryPolynomial.of(a), BinaryPolynomial.of(modulus)).toLong(), remainder);
+            assertTrue(remainder == 0 || Long.numberOfLeadingZeros(remainder) > Long.numberOfLeadingZeros(modulus));
+        }
+    }
+
+    @Test
+    public void zeroIsTheAdditiveIdentity() {
+        BinaryPolynomial x = BinaryPolynomial.of(random(new Random(43), 100));
+        assertEquals(x, BinaryPolynomial.add(x, BinaryPolynomial.ZERO));
+        assertTrue(BinaryPolynomial.add(x, x).isZero());
+        assertTrue(BinaryPolynomial.multiply(x, BinaryPolynomial.ZERO).isZero());
+        assertEquals(x, BinaryPolynomial.multiply(x, BinaryPolynomial.ONE));
+    }
+
+    // GaloisField reduces arbitrary binary polynomials through BinaryPolynomial
+    @Test
+    public void fieldConversionsRoundTrip() {
+        GaloisField GF = GaloisField.GF256;
+        Random random = new Random(44);
+        for (int e = 0; e < GF.getOrder(); e++) {
+            assertEquals(e, GF.toIntegerRepresentation(GF.toPolynomialRepresentation(e)));
+        }
+        for (int trial = 0; trial < 1000; trial++) {
+            Polynomial x = random(random, random.nextInt(100));
+            Polynomial y = random(random, random.nextInt(100));
+            int a = GF.toIntegerRepresentation(GF.add(x, Polynomial.ZERO));
+            int b = GF.toIntegerRepresentation(GF.add(y, Polynomial.ZERO));
+            assertEquals(GF.mul(a, b), GF.toIntegerRepresentation(GF.multiply(x, y)));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkDecoderTest {
+
+    @TempDir
+    Path directory;
+
+    // A byte mode segment holding text, followed by the terminator and zero padding
+    static int[] dataCodewords(String text, QRBlockStructure structure) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int[] data = new int[structure.getDataCodewords()];
+        // Mode and count take 12 bits, so every byte straddles two codewords
+        data[0] = 0x40 | bytes.length >>> 4;
+        data[1] = (bytes.length & 0xF) << 4;
+        for (int i = 0; i < bytes.length; i++) {
+            data[i + 1] |= (bytes[i] & 0xFF) >>> 4;
+            data[i + 2] = (bytes[i] & 0xF) << 4;
+        }
+        return data;
+    }
+
+    // Every third record gets as many errors as it can correct, every seventh one more than that in its first block
+    static byte[] record(int r, QRBlockStructure structure, Random random) {
+        int[] codewords = ReedSolomonEncoding.encode(dataCodewords("record " + r, structure), structure);
+        int errors = r % 7 == 6 ? structure.getEcCodewordsPerBlock() / 2 + 1 : r % 3 == 1 ? structure.getEcCodewordsPerBlock() / 2 : 0;
+        for (int k : ReedSolomonDecodingTest.randomPositions(structure.getBlockLength(0), errors, random)) {
+            codewords[structure.getInterleavedIndex(0, k)] ^= 1 + random.nextInt(255);
+        }
+
+        byte[] bytes = new byte[codewords.length];
+        for (int i = 0; i < codewords.length; i++) {
+            bytes[i] = (byte) codewords[i];
+        }
+        return bytes;
+    }
+
+    private static void checkSlots(Path output, BulkDecoder decoder, BulkDecoder.Summary summary, int records,
+                                   QRBlockStructure structure) throws IOException {
+        ByteBuffer slots = ByteBuffer.wrap(Files.readAllBytes(output));
+        assertEquals((long) records * decoder.getSlotSize(), slots.capacity());
+
+        int clean = 0, corrected = 0, failed = 0;
+        for (int r = 0; r < records; r++) {
+            int slot = r * decoder.getSlotSize();
+            if (r % 7 == 6) {
+                assertEquals(BulkDecoder.STATUS_FAILED, slots.get(slot), "record " + r);
+                failed++;
+                continue;
+            }
+
+            int errors = r % 3 == 1 ? structure.getEcCodewordsPerBlock() / 2 : 0;
+            assertEquals(errors == 0 ? BulkDecoder.STATUS_CLEAN : BulkDecoder.STATUS_CORRECTED, slots.get(slot), "record " + r);
+            assertEquals(errors, slots.getShort(slot + 1));
+            byte[] payload = new byte[slots.getShort(slot + 3)];
+            slots.get(slot + 5, payload);
+            assertEquals("record " + r, new String(payload, StandardCharsets.UTF_8));
+            if (errors == 0)
+                clean++;
+            else
+                corrected++;
+        }
+
+        assertEquals(records, summary.getRecords());
+        assertEquals(clean, summary.getClean());
+        assertEquals(corrected, summary.getCorrected());
+        assertEquals(failed, summary.getFailed());
+    }
+
+    // Single block records go through CodewordBatch, chunks not a multiple of its size included
+    @Test
+    public void fixedSizeSingleBlockRecords() throws IOException {
+        QRBlockStructure structure = QRBlockStructure.of(2, ErrorCorrectionLevel.M);
+        Random random = new Random(61);
+        int records = 1000;
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        for (int r = 0; r < records; r++) {
+            archive.write(record(r, structure, random));
+        }
+        Path input = Files.write(directory.resolve("records"), archive.toByteArray());
+        Path output = directory.resolve("slots");
+
+        BulkDecoder decoder = new BulkDecoder(2, ErrorCorrectionLevel.M, 3, 300);
+        BulkDecoder.Summary summary = decoder.decode(input, BulkDecoder.RecordFormat.FIXED, output);
+        checkSlots(output, decoder, summary, records, structure);
+    }
+
+    @Test
+    public void lengthPrefixedMultiBlockRecords() throws IOException {
+        QRBlockStructure structure = QRBlockStructure.of(7, ErrorCorrectionLevel.Q);
+        Random random = new Random(62);
+        int records = 200;
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        for (int r = 0; r < records; r++) {
+            byte[] record = record(r, structure, random);
+            archive.write(record.length >>> 8);
+            archive.write(record.length);
+            archive.write(record);
+        }
+        Path input = Files.write(directory.resolve("records"), archive.toByteArray());
+        Path output = directory.resolve("slots");
+
+        BulkDecoder decoder = new BulkDecoder(7, ErrorCorrectionLevel.Q, 2, 64);
+        BulkDecoder.Summary summary = decoder.decode(input, BulkDecoder.RecordFormat.LENGTH_PREFIXED, output);
+        checkSlots(output, decoder, summary, records, structure);
+    }
+
+    @Test
+    public void recordsOfTheWrongLengthFail() throws IOException {
+        Path input = Files.write(directory.resolve("records"), new byte[]{0, 3, 1, 2, 3});
+        Path output = directory.resolve("slots");
+
+        BulkDecoder.Summary summary = new BulkDecoder(1, ErrorCorrectionLevel.M, 1, 16)
+                .decode(input, BulkDecoder.RecordFormat.LENGTH_PREFIXED, output);
+        assertEquals(1, summary.getFailed());
+        assertEquals(BulkDecoder.STATUS_FAILED, Files.readAllBytes(output)[0]);
+
+        Path truncated = Files.write(directory.resolve("truncated"), new byte[27]);
+        assertThrows(IOException.class, () -> new BulkDecoder(1, ErrorCorrectionLevel.M, 1, 16)
+                .decode(truncated, BulkDecoder.RecordFormat.FIXED, output));
+    }
+
+    // Slots hold the longest payload and are at least as long as the records, so fixed size input chunks map whenever
+    // output chunks do
+    @Test
+    public void chunksMustMapAsOneBuffer() {
+        for (int version = QRBlockStructure.MIN_VERSION; version <= QRBlockStructure.MAX_VERSION; version++) {
+            for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+                BulkDecoder decoder = new BulkDecoder(version, level, 1, 1);
+                assertTrue(decoder.getSlotSize() >= QRBlockStructure.of(version, level).getTotalCodewords());
+            }
+        }
+
+        assertThrows(RuntimeException.class, () -> new BulkDecoder(1, ErrorCorrectionLevel.M, 1, 0));
+        assertThrows(RuntimeException.class, () -> new BulkDecoder(40, ErrorCorrectionLevel.L, 1, 1 << 20));
+    }
+}
@@ -0,0 +1,77 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Batch decoding must agree lane by lane with ReedSolomonDecoding.errorCorrection, on whichever of the vector and
+// scalar syndrome checks this JVM selects
+public class CodewordBatchTest {
+
+    private static final int CAPACITY = 300;
+
+    @Test
+    public void matchesScalarErrorCorrection() {
+        Random random = new Random(11);
+        GaloisField[] fields = {GaloisField.GF256, GaloisField.of(new Polynomial(1, 1, 0, 0, 1), 2, 4)};
+        int[][] shapes = {{26, 10}, {255, 30}, {15, 6}, {26, 7}};
+
+        for (GaloisField GF : fields) {
+            for (int[] shape : shapes) {
+                int length = shape[0];
+                int parityCheckSymbols = shape[1];
+                if (length >= GF.getOrder())
+                    continue;
+
+                CodewordBatch batch = new CodewordBatch(GF, length, parityCheckSymbols, 0, CAPACITY);
+                DecoderWorkspace workspace = new DecoderWorkspace(GF, parityCheckSymbols);
+                DecodeResult[] results = new DecodeResult[CAPACITY];
+
+                for (int round = 0; round < 3; round++) {
+                    int count = 1 + random.nextInt(CAPACITY);
+                    int[][] received = new int[count][];
+                    for (int lane = 0; lane < count; lane++) {
+                        received[lane] = ReedSolomonDecodingTest.randomCodeword(GF, length, parityCheckSymbols, 0, random);
+                        // A third clean, the rest up to a little past the correction capacity
+                        int errors = random.nextInt(3) == 0 ? 0 : random.nextInt(parityCheckSymbols / 2 + 3);
+                        for (int position : ReedSolomonDecodingTest.randomPositions(length, errors, random)) {
+                            received[lane][position] = GF.add(received[lane][position], ReedSolomonDecodingTest.randomNonzero(GF, random));
+                        }
+                        batch.set(lane, received[lane]);
+                    }
+
+                    batch.decode(count, results, workspace);
+
+                    int[] fromBatch = new int[length];
+                    for (int lane = 0; lane < count; lane++) {
+                        int[] expected = received[lane].clone();
+                        DecodeResult result = ReedSolomonDecoding.errorCorrection(GF, expected, length, parityCheckSymbols, 0, workspace);
+
+                        batch.get(lane, fromBatch);
+                        assertEquals(result.getStatus(), results[lane].getStatus(), "vectorized=" + batch.isVectorized());
+                        assertEquals(result.getCorrectedSymbols(), results[lane].getCorrectedSymbols());
+                        assertArrayEquals(expected, fromBatch);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void byteBuffersAreReadInBlockOrder() {
+        CodewordBatch batch = new CodewordBatch(GaloisField.GF256, 26, 7, 0, 3);
+        byte[] block = new byte[26];
+        for (int k = 0; k < block.length; k++) {
+            block[k] = (byte) (k * 37);
+        }
+
+        batch.set(2, ByteBuffer.wrap(block), 0);
+        for (int k = 0; k < block.length; k++) {
+            assertEquals(block[k] & 0xFF, batch.getSymbol(2, 25 - k));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A session fed consecutive frames of a slowly changing capture must decode every frame exactly like a stateless
+// ReedSolomonDecoding.errorCorrection
+public class DecodingSessionTest {
+
+    @Test
+    public void matchesStatelessErrorCorrection() {
+        Random random = new Random(21);
+        for (GaloisField GF : ReedSolomonDecodingTest.FIELDS) {
+            for (int FCR = 0; FCR < 2; FCR++) {
+                int length = Math.min(GF.getOrder() - 1, 60);
+                int parityCheckSymbols = Math.min(10, length / 2);
+                DecodingSession session = new DecodingSession(GF, length, parityCheckSymbols, FCR);
+                DecoderWorkspace workspace = new DecoderWorkspace(GF, parityCheckSymbols);
+
+                int[] codeword = ReedSolomonDecodingTest.randomCodeword(GF, length, parityCheckSymbols, FCR, random);
+                int[] frame = codeword.clone();
+
+                for (int f = 0; f < 500; f++) {
+                    // Mostly a few symbols flip or heal from one frame to the next, sometimes a new symbol is shown
+                    int change = random.nextInt(20);
+                    if (change == 0) {
+                        codeword = ReedSolomonDecodingTest.randomCodeword(GF, length, parityCheckSymbols, FCR, random);
+                        frame = codeword.clone();
+                    } else if (change < 5) {
+                        int position = random.nextInt(length);
+                        frame[position] = random.nextBoolean() ? codeword[position] : random.nextInt(GF.getOrder());
+                    } else if (change == 5) {
+                        session.reset();
+                    }
+
+                    int[] expected = frame.clone();
+                    DecodeResult result = ReedSolomonDecoding.errorCorrection(GF, expected, length, parityCheckSymbols, FCR, workspace);
+
+                    int[] decoded = frame.clone();
+                    DecodeResult sessionResult = session.decode(decoded);
+                    assertEquals(result.getStatus(), sessionResult.getStatus(), "frame " + f);
+                    assertEquals(result.getCorrectedSymbols(), sessionResult.getCorrectedSymbols(), "frame " + f);
+                    assertArrayEquals(expected, decoded, "frame " + f);
+                }
+
+                assertEquals(500, session.getWordCount());
+                assertTrue(session.getReusedCount() > 0);
+            }
+        }
+    }
+}
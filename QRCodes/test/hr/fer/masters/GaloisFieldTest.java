@@ -0,0 +1,97 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GaloisFieldTest {
+
+    @Test
+    public void fieldsComeFromTheRegistry() {
+        assertSame(GaloisField.GF256, GaloisField.of(Polynomial.QRCodePrimitive, 2, 8));
+        assertSame(GaloisField.gf65536(), GaloisField.of(Polynomial.GF65536Primitive, 2, 16));
+    }
+
+    @Test
+    public void nonPrimitivePolynomialsAreRejected() {
+        // x^8 + x^4 has no constant term, x^8 + x^4 + 1 = (x^4 + x^2 + 1)^2 is reducible
+        assertThrows(RuntimeException.class, () -> GaloisField.of(new Polynomial(0, 0, 0, 0, 1, 0, 0, 0, 1), 2, 8));
+        assertThrows(RuntimeException.class, () -> GaloisField.of(new Polynomial(1, 0, 0, 0, 1, 0, 0, 0, 1), 2, 8));
+        // x^4 + x^3 + x^2 + x + 1 is irreducible, but x has order 5
+        assertThrows(RuntimeException.class, () -> GaloisField.of(new Polynomial(1, 1, 1, 1, 1), 2, 4));
+    }
+
+    // There are 16 primitive polynomials of degree 8 over GF(2)
+    @Test
+    public void acceptsExactlyThePrimitivePolynomialsOfDegree8() {
+        int accepted = 0;
+        for (int polynomial = 0x100; polynomial < 0x200; polynomial++) {
+            try {
+                new BinaryFieldArithmetic(polynomial, 8);
+                accepted++;
+            } catch (RuntimeException e) {
+                // Not primitive
+            }
+        }
+        assertEquals(16, accepted);
+    }
+
+    // There are 4 monic primitive polynomials of degree 3 over GF(3), and x^3 + 2x + 1 is one of them only when monic
+    @Test
+    public void acceptsExactlyTheMonicPrimitivePolynomialsOfDegree3OverGF3() {
+        int accepted = 0;
+        for (int polynomial = 27; polynomial < 54; polynomial++) {
+            try {
+                new PrimeFieldArithmetic(polynomial, 3, 3);
+                accepted++;
+            } catch (RuntimeException e) {
+                // Not primitive
+            }
+        }
+        assertEquals(4, accepted);
+
+        new PrimeFieldArithmetic(27 + 2 * 3 + 1, 3, 3);
+        assertThrows(RuntimeException.class, () -> new PrimeFieldArithmetic(2 * 27 + 2 * 3 + 1, 3, 3));
+        assertThrows(RuntimeException.class, () -> GaloisField.of(new Polynomial(1, 2, 0, 2), 3, 3));
+    }
+
+    @Test
+    public void gf65536ArithmeticIsConsistent() {
+        GaloisField GF = GaloisField.gf65536();
+        Random random = new Random(31);
+        for (int trial = 0; trial < 100000; trial++) {
+            int a = 1 + random.nextInt(GF.getOrder() - 1);
+            int b = 1 + random.nextInt(GF.getOrder() - 1);
+            int c = random.nextInt(GF.getOrder());
+
+            assertEquals(a, GF.div(GF.mul(a, b), b));
+            assertEquals(1, GF.mul(a, GF.div(1, a)));
+            assertEquals(GF.add(GF.mul(a, c), GF.mul(b, c)), GF.mul(GF.add(a, b), c));
+            assertEquals(a, GF.exp(GF.log(a)));
+        }
+    }
+
+    @Test
+    public void longCodesOverGF65536RoundTrip() {
+        GaloisField GF = GaloisField.gf65536();
+        Random random = new Random(4);
+        int length = 1000;
+        int parityCheckSymbols = 40;
+        int[] codeword = ReedSolomonDecodingTest.randomCodeword(GF, length, parityCheckSymbols, 1, random);
+
+        int[] received = codeword.clone();
+        for (int position : ReedSolomonDecodingTest.randomPositions(length, parityCheckSymbols / 2, random)) {
+            received[position] = GF.add(received[position], ReedSolomonDecodingTest.randomNonzero(GF, random));
+        }
+
+        DecodeResult result = ReedSolomonDecoding.errorCorrection(GF, received, length, parityCheckSymbols, 1,
+                new DecoderWorkspace(GF, parityCheckSymbols));
+        assertArrayEquals(codeword, received);
+        assertEquals(parityCheckSymbols / 2, result.getCorrectedSymbols());
+    }
+}
@@ -0,0 +1,66 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HistogramInstrumentationTest {
+
+    private static final GaloisField GF = GaloisField.GF256;
+    private static final int LENGTH = 40;
+    private static final int PARITY = 10;
+
+    @Test
+    public void countsDecodingsByOutcome() {
+        HistogramInstrumentation stats = new HistogramInstrumentation();
+        Random random = new Random(91);
+        DecoderWorkspace workspace = new DecoderWorkspace(GF, PARITY);
+
+        ReedSolomonDecoding.setInstrumentation(stats);
+        try {
+            for (int errors = 0; errors <= PARITY / 2; errors++) {
+                int[] received = ReedSolomonDecodingTest.randomCodeword(GF, LENGTH, PARITY, 0, random);
+                for (int position : ReedSolomonDecodingTest.randomPositions(LENGTH, errors, random)) {
+                    received[position] = GF.add(received[position], ReedSolomonDecodingTest.randomNonzero(GF, random));
+                }
+                ReedSolomonDecoding.errorCorrection(GF, received, LENGTH, PARITY, 0, workspace);
+            }
+
+            // Every symbol in error, far beyond what the code can correct
+            int[] uncorrectable = ReedSolomonDecodingTest.randomCodeword(GF, LENGTH, PARITY, 0, random);
+            for (int i = 0; i < LENGTH; i++) {
+                uncorrectable[i] = GF.add(uncorrectable[i], ReedSolomonDecodingTest.randomNonzero(GF, random));
+            }
+            assertTrue(ReedSolomonDecoding.errorCorrection(GF, uncorrectable, LENGTH, PARITY, 0, workspace).isUncorrectable());
+
+            // A codeword shorter than its length makes the syndrome stage throw
+            assertThrows(RuntimeException.class,
+                    () -> ReedSolomonDecoding.errorCorrection(GF, new int[LENGTH / 2], LENGTH, PARITY, 0, workspace));
+
+            assertEquals(PARITY / 2 + 1, stats.getErrors().getCount());
+            assertEquals(0, stats.getErrors().getValueAtPercentile(0));
+            assertEquals(1, stats.getUncorrectable());
+            assertEquals(1, stats.getFailures());
+            assertEquals(1, stats.getFailures(DecodeStage.SYNDROMES));
+            assertTrue(stats.getStageNanos(DecodeStage.SYNDROMES).getCount() >= PARITY / 2 + 1);
+            assertEquals(PARITY / 2, stats.getStageNanos(DecodeStage.MAGNITUDES).getCount());
+
+            String printed = stats.toString();
+            assertTrue(printed.contains("uncorrectable=" + stats.getUncorrectable()));
+            assertTrue(printed.contains("failures=1"));
+
+            HistogramInstrumentation snapshot = stats.snapshotAndReset();
+            assertEquals(1, snapshot.getFailures());
+            assertEquals(1, snapshot.getUncorrectable());
+            assertEquals(0, stats.getFailures());
+            assertEquals(0, stats.getUncorrectable());
+            assertEquals(0, stats.getErrors().getCount());
+        } finally {
+            ReedSolomonDecoding.setInstrumentation(null);
+        }
+    }
+}
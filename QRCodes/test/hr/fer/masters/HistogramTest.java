@@ -0,0 +1,118 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HistogramTest {
+
+    // Percentiles against the sorted values, within the relative precision of 7 sub-bucket bits
+    @Test
+    public void percentilesAreWithinThePrecision() {
+        Random random = new Random(81);
+        Histogram histogram = new Histogram();
+        long[] values = new long[100000];
+        for (int i = 0; i < values.length; i++) {
+            // Spread over many magnitudes
+            values[i] = random.nextLong() >>> (1 + random.nextInt(63));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[]{0.1, 1, 10, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact, percentile + "%");
+            assertTrue(reported - exact <= exact / 64, percentile + "%");
+        }
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram(4);
+        for (int value = 0; value < 16; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5);
+
+        assertEquals(17, histogram.getCount());
+        assertEquals(120, histogram.getTotal());
+        assertEquals(0, histogram.getValueAtPercentile(10));
+        assertEquals(7, histogram.getValueAtPercentile(50));
+        assertEquals(15, histogram.getValueAtPercentile(100));
+
+        assertThrows(RuntimeException.class, () -> new Histogram(0));
+        assertThrows(RuntimeException.class, () -> new Histogram(17));
+    }
+
+    @Test
+    public void snapshotAndResetMovesEverything() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000L);
+        }
+        String before = histogram.toString();
+
+        Histogram snapshot = histogram.snapshotAndReset();
+        assertEquals(before, snapshot.toString());
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000000, snapshot.getMax());
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getTotal());
+        assertEquals(0, histogram.getMax());
+
+        histogram.record(5);
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    // Values recorded while snapshots are taken end up in exactly one of them
+    @Test
+    public void concurrentRecordingIsNotLost() throws Exception {
+        Histogram histogram = new Histogram();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] writers = new Future<?>[4];
+            for (int t = 0; t < writers.length; t++) {
+                writers[t] = pool.submit(() -> {
+                    for (int i = 0; i < 100000; i++) {
+                        histogram.record(i);
+                    }
+                });
+            }
+
+            long count = 0, total = 0;
+            boolean done = false;
+            while (!done) {
+                done = true;
+                for (Future<?> writer : writers) {
+                    done &= writer.isDone();
+                }
+                Histogram snapshot = histogram.snapshotAndReset();
+                count += snapshot.getCount();
+                total += snapshot.getTotal();
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            count += histogram.getCount();
+            total += histogram.getTotal();
+
+            assertEquals(400000, count);
+            assertEquals(4 * (100000L * 99999 / 2), total);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
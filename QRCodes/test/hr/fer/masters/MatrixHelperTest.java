@@ -0,0 +1,86 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatrixHelperTest {
+
+    private static int[][] randomMatrix(GaloisField GF, int n, Random random) {
+        int[][] a = new int[n][n];
+        for (int[] row : a) {
+            for (int j = 0; j < n; j++) {
+                row[j] = random.nextInt(GF.getOrder());
+            }
+        }
+        return a;
+    }
+
+    private static int[] multiply(GaloisField GF, int[][] a, int[] x) {
+        int[] b = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            for (int j = 0; j < x.length; j++) {
+                b[i] = GF.add(b[i], GF.mul(a[i][j], x[j]));
+            }
+        }
+        return b;
+    }
+
+    private static int[][] copy(int[][] a) {
+        int[][] copy = new int[a.length][];
+        for (int i = 0; i < a.length; i++) {
+            copy[i] = a[i].clone();
+        }
+        return copy;
+    }
+
+    // Solves Ax = b for a random x and checks that it is found again whenever A is nonsingular
+    @Test
+    public void solveInPlaceRecoversTheSolution() {
+        Random random = new Random(51);
+        for (GaloisField GF : ReedSolomonDecodingTest.FIELDS) {
+            int solved = 0;
+            for (int trial = 0; trial < 500; trial++) {
+                int n = 1 + random.nextInt(12);
+                int[][] a = randomMatrix(GF, n, random);
+                int[] x = new int[n];
+                for (int i = 0; i < n; i++) {
+                    x[i] = random.nextInt(GF.getOrder());
+                }
+                int[] b = multiply(GF, a, x);
+
+                boolean nonsingular = MatrixHelper.determinant(GF, a) != 0;
+                int[] solution = b.clone();
+                assertEquals(nonsingular, MatrixHelper.solveInPlace(GF, copy(a), solution));
+                if (nonsingular) {
+                    assertArrayEquals(x, solution);
+                    solved++;
+                }
+            }
+            assertTrue(solved > 0);
+        }
+    }
+
+    @Test
+    public void singularMatricesAreReported() {
+        GaloisField GF = GaloisField.GF256;
+        Random random = new Random(52);
+        for (int trial = 0; trial < 100; trial++) {
+            int n = 2 + random.nextInt(10);
+            int[][] a = randomMatrix(GF, n, random);
+            // One row a multiple of another
+            int factor = 1 + random.nextInt(255);
+            for (int j = 0; j < n; j++) {
+                a[n - 1][j] = GF.mul(a[0][j], factor);
+            }
+
+            assertEquals(0, MatrixHelper.determinant(GF, a));
+            assertFalse(MatrixHelper.solveInPlace(GF, copy(a), new int[n]));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PayloadCacheTest {
+
+    // Distinct bytes for every id below 65536
+    private static ByteBuffer symbol(int id, int length) {
+        ByteBuffer codewords = ByteBuffer.allocate(length);
+        for (int i = 0; i < length; i++) {
+            codewords.put(i, (byte) (id * 31 + i * 7));
+        }
+        codewords.putShort(0, (short) id);
+        return codewords;
+    }
+
+    @Test
+    public void returnsWhatWasPutForTheSameKeyOnly() {
+        PayloadCache cache = new PayloadCache(1 << 20, 4);
+        ByteBuffer codewords = symbol(1, 26);
+        DecodeResult corrected = DecodeResult.corrected(2);
+
+        assertNull(cache.get(codewords, 1, ErrorCorrectionLevel.M));
+        cache.put(codewords, 1, ErrorCorrectionLevel.M, corrected, "payload");
+
+        PayloadCache.Decoded decoded = cache.get(symbol(1, 26), 1, ErrorCorrectionLevel.M);
+        assertNotNull(decoded);
+        assertSame(corrected, decoded.getResult());
+        assertEquals("payload", decoded.getPayload());
+        assertEquals(0, codewords.position());
+
+        // Version, level and every byte are part of the key
+        assertNull(cache.get(symbol(1, 26), 2, ErrorCorrectionLevel.M));
+        assertNull(cache.get(symbol(1, 26), 1, ErrorCorrectionLevel.L));
+        assertNull(cache.get(symbol(1, 26), 1, null));
+        ByteBuffer changed = symbol(1, 26);
+        changed.put(25, (byte) (changed.get(25) ^ 1));
+        assertNull(cache.get(changed, 1, ErrorCorrectionLevel.M));
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    public void uncorrectableResultsAreCachedWithoutPayload() {
+        PayloadCache cache = new PayloadCache(1 << 20, 1);
+        cache.put(symbol(2, 44), 2, ErrorCorrectionLevel.L, DecodeResult.UNCORRECTABLE, null);
+
+        PayloadCache.Decoded decoded = cache.get(symbol(2, 44), 2, ErrorCorrectionLevel.L);
+        assertTrue(decoded.getResult().isUncorrectable());
+        assertNull(decoded.getPayload());
+    }
+
+    // A slice of a larger buffer is keyed by its remaining bytes only
+    @Test
+    public void keysAreTheRemainingBytes() {
+        PayloadCache cache = new PayloadCache(1 << 20, 1);
+        ByteBuffer archive = ByteBuffer.allocate(100);
+        archive.put(10, symbol(3, 26).array());
+
+        cache.put(archive.slice(10, 26), 1, null, DecodeResult.CLEAN, "x");
+        assertNotNull(cache.get(symbol(3, 26), 1, null));
+        assertNotNull(cache.get(archive.position(10).limit(36), 1, null));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedWithinTheBudget() {
+        PayloadCache cache = new PayloadCache(PayloadCache.MAX_ENTRY_BYTES, 1);
+        int entries = 200;
+        for (int id = 0; id < entries; id++) {
+            cache.put(symbol(id, 100), 5, ErrorCorrectionLevel.Q, DecodeResult.CLEAN, "payload " + id);
+            // Keep the first symbol in use
+            assertNotNull(cache.get(symbol(0, 100), 5, ErrorCorrectionLevel.Q));
+            assertTrue(cache.getEstimatedBytes() <= cache.getMaxBytes());
+        }
+
+        assertTrue(cache.getEvictionCount() > 0);
+        assertEquals(entries, cache.size() + cache.getEvictionCount());
+        assertNotNull(cache.get(symbol(0, 100), 5, ErrorCorrectionLevel.Q));
+        assertNull(cache.get(symbol(1, 100), 5, ErrorCorrectionLevel.Q));
+        assertNotNull(cache.get(symbol(entries - 1, 100), 5, ErrorCorrectionLevel.Q));
+    }
+
+    // However many stripes are asked for, each one can hold the largest entry, so small budgets still cache
+    @Test
+    public void smallBudgetsUseFewerStripes() {
+        PayloadCache cache = new PayloadCache(PayloadCache.MAX_ENTRY_BYTES * 2L, 64);
+        for (int id = 0; id < 10; id++) {
+            cache.put(symbol(id, 26), 1, ErrorCorrectionLevel.M, DecodeResult.CLEAN, "x");
+        }
+        assertEquals(10, cache.size());
+
+        assertThrows(RuntimeException.class, () -> new PayloadCache(PayloadCache.MAX_ENTRY_BYTES - 1));
+        assertThrows(RuntimeException.class, () -> new PayloadCache(1 << 20, 0));
+    }
+
+    @Test
+    public void concurrentUseKeepsEntriesConsistent() throws Exception {
+        PayloadCache cache = new PayloadCache(64 * 1024, 8);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> workers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                workers.add(pool.submit(() -> {
+                    int wrong = 0;
+                    for (int i = 0; i < 20000; i++) {
+                        int id = (i * 7 + seed * 13) % 500;
+                        PayloadCache.Decoded decoded = cache.get(symbol(id, 26), 1, null);
+                        if (decoded == null)
+                            cache.put(symbol(id, 26), 1, null, DecodeResult.CLEAN, "payload " + id);
+                        else if (!decoded.getPayload().equals("payload " + id))
+                            wrong++;
+                    }
+                    return wrong;
+                }));
+            }
+            for (Future<Integer> worker : workers) {
+                assertEquals(0, worker.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(cache.getEstimatedBytes() <= cache.getMaxBytes());
+        assertEquals(80000, cache.getHitCount() + cache.getMissCount());
+    }
+}
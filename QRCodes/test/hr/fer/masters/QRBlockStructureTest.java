@@ -0,0 +1,61 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class QRBlockStructureTest {
+
+    @Test
+    public void interleavingIsABijection() {
+        for (int version = QRBlockStructure.MIN_VERSION; version <= QRBlockStructure.MAX_VERSION; version++) {
+            for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+                QRBlockStructure structure = QRBlockStructure.of(version, level);
+                boolean[] seen = new boolean[structure.getTotalCodewords()];
+
+                for (int b = 0; b < structure.getBlockCount(); b++) {
+                    for (int k = 0; k < structure.getBlockLength(b); k++) {
+                        int index = structure.getInterleavedIndex(b, k);
+                        assertFalse(seen[index], structure + " index " + index + " used twice");
+                        seen[index] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void getBlockOfAndGetPositionInBlockInvertTheInterleaving() {
+        for (int version = QRBlockStructure.MIN_VERSION; version <= QRBlockStructure.MAX_VERSION; version++) {
+            for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+                QRBlockStructure structure = QRBlockStructure.of(version, level);
+                for (int b = 0; b < structure.getBlockCount(); b++) {
+                    for (int k = 0; k < structure.getBlockLength(b); k++) {
+                        int index = structure.getInterleavedIndex(b, k);
+                        assertEquals(b, structure.getBlockOf(index), structure + " index " + index);
+                        assertEquals(k, structure.getPositionInBlock(index), structure + " index " + index);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blocksAddUpToTheSymbol() {
+        for (int version = QRBlockStructure.MIN_VERSION; version <= QRBlockStructure.MAX_VERSION; version++) {
+            for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+                QRBlockStructure structure = QRBlockStructure.of(version, level);
+                int total = 0;
+                int data = 0;
+                for (int b = 0; b < structure.getBlockCount(); b++) {
+                    assertEquals(data, structure.getBlockDataOffset(b));
+                    total += structure.getBlockLength(b);
+                    data += structure.getBlockDataCodewords(b);
+                }
+                assertEquals(structure.getTotalCodewords(), total);
+                assertEquals(structure.getDataCodewords(), data);
+            }
+        }
+    }
+}
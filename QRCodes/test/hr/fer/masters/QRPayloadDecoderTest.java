@@ -0,0 +1,74 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class QRPayloadDecoderTest {
+
+    // Builds data codewords bit by bit, padded with zeros to whole codewords
+    private static class Segments {
+        private final StringBuilder bits = new StringBuilder();
+
+        Segments write(int value, int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                bits.append(value >>> i & 1);
+            }
+            return this;
+        }
+
+        Segments bytes(int eci, byte[] bytes) {
+            write(0b0111, 4).write(eci, 8);
+            write(0b0100, 4).write(bytes.length, 8);
+            for (byte b : bytes) {
+                write(b & 0xFF, 8);
+            }
+            return this;
+        }
+
+        String decode() {
+            write(0, 4);
+            int[] codewords = new int[(bits.length() + 7) / 8];
+            for (int i = 0; i < bits.length(); i++) {
+                codewords[i / 8] |= (bits.charAt(i) - '0') << (7 - i % 8);
+            }
+            return new QRPayloadDecoder().decode(codewords, 1, new StringBuilder()).toString();
+        }
+    }
+
+    @Test
+    public void numericAndAlphanumericSegments() {
+        // "01234567" in numeric mode, then "AC-42" in alphanumeric mode, version 1 count lengths
+        Segments segments = new Segments()
+                .write(0b0001, 4).write(8, 10).write(12, 10).write(345, 10).write(67, 7)
+                .write(0b0010, 4).write(5, 9).write(10 * 45 + 12, 11).write(41 * 45 + 4, 11).write(2, 6);
+        assertEquals("01234567AC-42", segments.decode());
+    }
+
+    @Test
+    public void byteSegmentsFollowTheirEciCharset() {
+        String text = "žćč";
+        assertEquals(text, new Segments().bytes(26, text.getBytes(StandardCharsets.UTF_8)).decode());
+        assertEquals(text, new Segments().bytes(4, text.getBytes(Charset.forName("ISO-8859-2"))).decode());
+        assertEquals("─é", new Segments().bytes(0, new byte[]{(byte) 0xC4, (byte) 0x82}).decode());
+        assertEquals("é", new Segments().bytes(3, new byte[]{(byte) 0xE9}).decode());
+    }
+
+    @Test
+    public void unassignedEciIsRejected() {
+        assertThrows(RuntimeException.class, () -> new Segments().bytes(14, new byte[]{65}).decode());
+        assertThrows(RuntimeException.class, () -> new Segments().bytes(19, new byte[]{65}).decode());
+    }
+
+    @Test
+    public void eciCharsetsMissingFromTheJvmFailWithAnError() {
+        if (Charset.isSupported("ISO-8859-10"))
+            assertEquals("AB", new Segments().bytes(12, new byte[]{65, 66}).decode());
+        else
+            assertThrows(RuntimeException.class, () -> new Segments().bytes(12, new byte[]{65, 66}).decode());
+    }
+}
@@ -0,0 +1,245 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Round trips through encoding, injected errors and erasures and errorCorrection, over binary and odd characteristic
+// fields, both locator algorithms and both first consecutive roots, and detection of words beyond the correction
+// capacity
+public class ReedSolomonDecodingTest {
+
+    static final GaloisField[] FIELDS = {
+            GaloisField.GF256,
+            GaloisField.of(new Polynomial(1, 1, 0, 0, 1), 2, 4),
+            GaloisField.of(new Polynomial(1, 2, 0, 1), 3, 3)
+    };
+
+    private static final ReedSolomonDecoder[] DECODERS = {new BerlekampMasseyDecoder(), new ReferenceDecoder()};
+
+    private static final int TRIALS = 300;
+
+    // Random data in codeword[parityCheckSymbols, length), parity computed by the encoder
+    static int[] randomCodeword(GaloisField GF, int length, int parityCheckSymbols, int FCR, Random random) {
+        int[] codeword = new int[length];
+        for (int i = parityCheckSymbols; i < length; i++) {
+            codeword[i] = random.nextInt(GF.getOrder());
+        }
+        ReedSolomonEncoding.encode(GF, codeword, length, parityCheckSymbols, FCR);
+        return codeword;
+    }
+
+    // count distinct positions in random order
+    static int[] randomPositions(int length, int count, Random random) {
+        int[] positions = new int[length];
+        for (int i = 0; i < length; i++) {
+            positions[i] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(length - i);
+            int swap = positions[i];
+            positions[i] = positions[j];
+            positions[j] = swap;
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    static int randomNonzero(GaloisField GF, Random random) {
+        return 1 + random.nextInt(GF.getOrder() - 1);
+    }
+
+    @Test
+    public void correctsUpToHalfTheParitySymbolsInErrors() {
+        Random random = new Random(2);
+        for (GaloisField GF : FIELDS) {
+            for (ReedSolomonDecoder decoder : DECODERS) {
+                for (int trial = 0; trial < TRIALS; trial++) {
+                    int FCR = random.nextInt(2);
+                    int parityCheckSymbols = 2 + random.nextInt(Math.min(20, GF.getOrder() - 4));
+                    int length = parityCheckSymbols + 1 + random.nextInt(Math.min(GF.getOrder() - 1, 80) - parityCheckSymbols);
+                    int[] codeword = randomCodeword(GF, length, parityCheckSymbols, FCR, random);
+
+                    int errors = random.nextInt(parityCheckSymbols / 2 + 1);
+                    int[] received = codeword.clone();
+                    for (int position : randomPositions(length, errors, random)) {
+                        received[position] = GF.add(received[position], randomNonzero(GF, random));
+                    }
+
+                    DecodeResult result = ReedSolomonDecoding.errorCorrection(GF, received, length, parityCheckSymbols, FCR,
+                            new DecoderWorkspace(GF, parityCheckSymbols), decoder);
+                    assertArrayEquals(codeword, received, GF.getOrder() + " " + decoder.getClass().getSimpleName());
+                    assertEquals(errors, result.getCorrectedSymbols());
+                    assertEquals(errors == 0, result.isClean());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void correctsErrorsAndErasuresWithinTheParityBudget() {
+        Random random = new Random(3);
+        for (GaloisField GF : FIELDS) {
+            for (ReedSolomonDecoder decoder : DECODERS) {
+                for (int trial = 0; trial < TRIALS; trial++) {
+                    int FCR = random.nextInt(2);
+                    int parityCheckSymbols = 2 + random.nextInt(Math.min(20, GF.getOrder() - 4));
+                    int length = parityCheckSymbols + 1 + random.nextInt(Math.min(GF.getOrder() - 1, 80) - parityCheckSymbols);
+                    int[] codeword = randomCodeword(GF, length, parityCheckSymbols, FCR, random);
+
+                    // 2e + r <= parityCheckSymbols, up to all of them spent on erasures
+                    int erasureCount = random.nextInt(parityCheckSymbols + 1);
+                    int errors = random.nextInt((parityCheckSymbols - erasureCount) / 2 + 1);
+                    int[] positions = randomPositions(length, erasureCount + errors, random);
+                    int[] erasures = Arrays.copyOf(positions, erasureCount);
+
+                    int[] received = codeword.clone();
+                    int changed = 0;
+                    for (int k = 0; k < positions.length; k++) {
+                        // An erased symbol may still hold its original value
+                        if (k < erasureCount && random.nextBoolean())
+                            continue;
+                        received[positions[k]] = GF.add(received[positions[k]], randomNonzero(GF, random));
+                        changed++;
+                    }
+
+                    DecodeResult result = ReedSolomonDecoding.errorCorrection(GF, received, length, erasures, erasureCount,
+                            parityCheckSymbols, FCR, new DecoderWorkspace(GF, parityCheckSymbols), decoder);
+                    assertArrayEquals(codeword, received, GF.getOrder() + " " + decoder.getClass().getSimpleName());
+                    assertEquals(changed, result.getCorrectedSymbols());
+                }
+            }
+        }
+    }
+
+    // Every parity symbol of every block spent on an erasure, placed through the interleaving
+    @Test
+    public void symbolsWithAsManyErasuresAsParitySymbolsPerBlockRoundTrip() {
+        Random random = new Random(8);
+        for (int version = QRBlockStructure.MIN_VERSION; version <= QRBlockStructure.MAX_VERSION; version += 3) {
+            for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+                QRBlockStructure structure = QRBlockStructure.of(version, level);
+                int[] data = new int[structure.getDataCodewords()];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = random.nextInt(256);
+                }
+                int[] codewords = ReedSolomonEncoding.encode(data, structure);
+
+                int[] erasures = new int[structure.getBlockCount() * structure.getEcCodewordsPerBlock()];
+                int erasureCount = 0;
+                for (int b = 0; b < structure.getBlockCount(); b++) {
+                    for (int k : randomPositions(structure.getBlockLength(b), structure.getEcCodewordsPerBlock(), random)) {
+                        int index = structure.getInterleavedIndex(b, k);
+                        codewords[index] ^= 1 + random.nextInt(255);
+                        erasures[erasureCount++] = index;
+                    }
+                }
+
+                int[] decoded = new int[data.length];
+                DecodeResult result = ReedSolomonDecoding.decode(codewords, structure, erasures, erasureCount, decoded,
+                        new DecoderWorkspace(GaloisField.GF256, structure.getEcCodewordsPerBlock()));
+                assertArrayEquals(data, decoded, structure.toString());
+                assertEquals(erasureCount, result.getCorrectedSymbols());
+            }
+        }
+    }
+
+    // The MessagePolynomial overload returns clean words as they are and throws for uncorrectable ones
+    @Test
+    public void polynomialCodewordsAreCorrected() {
+        Random random = new Random(9);
+        for (GaloisField GF : FIELDS) {
+            int length = Math.min(GF.getOrder() - 1, 40);
+            int parityCheckSymbols = 8;
+            int[] codeword = randomCodeword(GF, length, parityCheckSymbols, 1, random);
+            // A nonzero leading coefficient, left alone by the errors, so that the polynomial keeps the codeword length
+            codeword[length - 1] = randomNonzero(GF, random);
+            ReedSolomonEncoding.encode(GF, codeword, length, parityCheckSymbols, 1);
+            MessagePolynomial clean = new MessagePolynomial(GF, codeword);
+            assertSame(clean, ReedSolomonDecoding.errorCorrection(GF, clean, parityCheckSymbols, 1));
+
+            int[] received = codeword.clone();
+            for (int position : randomPositions(length - 1, parityCheckSymbols / 2, random)) {
+                received[position] = GF.add(received[position], randomNonzero(GF, random));
+            }
+            assertEquals(clean, ReedSolomonDecoding.errorCorrection(GF, new MessagePolynomial(GF, received), parityCheckSymbols, 1));
+
+            for (int position : randomPositions(length - 1, length / 2, random)) {
+                received[position] = GF.add(received[position], randomNonzero(GF, random));
+            }
+            // Unless the array decoder miscorrects this word too
+            MessagePolynomial uncorrectable = new MessagePolynomial(GF, received);
+            if (!ReedSolomonDecoding.isCodeword(GF, received, length, parityCheckSymbols, 1, new DecoderWorkspace(GF, parityCheckSymbols))
+                    && ReedSolomonDecoding.errorCorrection(GF, received.clone(), length, parityCheckSymbols, 1,
+                    new DecoderWorkspace(GF, parityCheckSymbols)).isUncorrectable())
+                assertThrows(RuntimeException.class, () -> ReedSolomonDecoding.errorCorrection(GF, uncorrectable, parityCheckSymbols, 1));
+        }
+    }
+
+    // With 30 parity symbols a miscorrection of 16 errors is all but impossible, so every word must be detected
+    @Test
+    public void moreErrorsThanCorrectableAreUncorrectableAndLeaveTheWordUnchanged() {
+        GaloisField GF = GaloisField.GF256;
+        Random random = new Random(5);
+        int length = 255;
+        int parityCheckSymbols = 30;
+
+        for (ReedSolomonDecoder decoder : DECODERS) {
+            for (int trial = 0; trial < TRIALS; trial++) {
+                int[] received = randomCodeword(GF, length, parityCheckSymbols, 0, random);
+                int errors = parityCheckSymbols / 2 + 1 + random.nextInt(10);
+                for (int position : randomPositions(length, errors, random)) {
+                    received[position] = GF.add(received[position], randomNonzero(GF, random));
+                }
+                int[] copy = received.clone();
+
+                DecodeResult result = ReedSolomonDecoding.errorCorrection(GF, received, length, parityCheckSymbols, 0,
+                        new DecoderWorkspace(GF, parityCheckSymbols), decoder);
+                assertTrue(result.isUncorrectable(), decoder.getClass().getSimpleName() + " " + result);
+                assertArrayEquals(copy, received);
+            }
+        }
+    }
+
+    // Short codes can miscorrect beyond their capacity, but only into another codeword within half the parity symbols
+    // of the received word; anything else must be reported uncorrectable with the word as received
+    @Test
+    public void wordsBeyondCapacityAreEitherUncorrectableOrAValidCodeword() {
+        Random random = new Random(6);
+        int uncorrectable = 0;
+        int total = 0;
+
+        for (GaloisField GF : FIELDS) {
+            for (int trial = 0; trial < TRIALS; trial++) {
+                int parityCheckSymbols = 4 + random.nextInt(Math.min(10, GF.getOrder() - 6));
+                int length = Math.min(GF.getOrder() - 1, parityCheckSymbols + 10);
+                int[] codeword = randomCodeword(GF, length, parityCheckSymbols, 0, random);
+
+                int errors = parityCheckSymbols / 2 + 1 + random.nextInt(length - parityCheckSymbols / 2);
+                int[] received = codeword.clone();
+                for (int position : randomPositions(length, errors, random)) {
+                    received[position] = GF.add(received[position], randomNonzero(GF, random));
+                }
+                int[] copy = received.clone();
+
+                DecoderWorkspace workspace = new DecoderWorkspace(GF, parityCheckSymbols);
+                DecodeResult result = ReedSolomonDecoding.errorCorrection(GF, received, length, parityCheckSymbols, 0, workspace);
+                total++;
+                if (result.isUncorrectable()) {
+                    uncorrectable++;
+                    assertArrayEquals(copy, received);
+                } else {
+                    assertTrue(ReedSolomonDecoding.isCodeword(GF, received, length, parityCheckSymbols, 0, workspace));
+                    assertTrue(result.getCorrectedSymbols() <= parityCheckSymbols / 2);
+                }
+            }
+        }
+        assertTrue(uncorrectable > total / 2, uncorrectable + " of " + total);
+    }
+}
@@ -0,0 +1,72 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReedSolomonEncodingTest {
+
+    @Test
+    public void encodedCodewordsAreClean() {
+        Random random = new Random(1);
+        for (GaloisField GF : ReedSolomonDecodingTest.FIELDS) {
+            for (int FCR = 0; FCR < 2; FCR++) {
+                int length = Math.min(GF.getOrder() - 1, 40);
+                int[] codeword = ReedSolomonDecodingTest.randomCodeword(GF, length, 10, FCR, random);
+                int[] decoded = codeword.clone();
+
+                DecoderWorkspace workspace = new DecoderWorkspace(GF, 10);
+                assertTrue(ReedSolomonDecoding.isCodeword(GF, codeword, length, 10, FCR, workspace));
+                assertTrue(ReedSolomonDecoding.errorCorrection(GF, decoded, length, 10, FCR, workspace).isClean());
+                assertArrayEquals(codeword, decoded);
+            }
+        }
+    }
+
+    // Callers get their own copy of a cached generator
+    @Test
+    public void cachedGeneratorsAreNotShared() {
+        for (int parityCheckSymbols : GeneratorPolynomialCache.QR_EC_CODEWORDS_PER_BLOCK) {
+            MessagePolynomial generator = GeneratorPolynomialCache.get(GaloisField.GF256, parityCheckSymbols, 0);
+            assertEquals(ReedSolomonDecoding.calculateGeneratorPolynomial(GaloisField.GF256, parityCheckSymbols, 0), generator);
+            assertEquals(parityCheckSymbols, generator.getDegree());
+            assertNotSame(generator, GeneratorPolynomialCache.get(GaloisField.GF256, parityCheckSymbols, 0));
+        }
+    }
+
+    // Up to half the parity symbols of every block in errors, placed through the interleaving
+    @Test
+    public void symbolsOfEveryVersionAndLevelRoundTrip() {
+        Random random = new Random(7);
+        for (int version = QRBlockStructure.MIN_VERSION; version <= QRBlockStructure.MAX_VERSION; version++) {
+            for (ErrorCorrectionLevel level : ErrorCorrectionLevel.values()) {
+                QRBlockStructure structure = QRBlockStructure.of(version, level);
+                int[] data = new int[structure.getDataCodewords()];
+                for (int i = 0; i < data.length; i++) {
+                    data[i] = random.nextInt(256);
+                }
+                int[] codewords = ReedSolomonEncoding.encode(data, structure);
+
+                int corrupted = 0;
+                for (int b = 0; b < structure.getBlockCount(); b++) {
+                    int errors = random.nextInt(structure.getEcCodewordsPerBlock() / 2 + 1);
+                    for (int k : ReedSolomonDecodingTest.randomPositions(structure.getBlockLength(b), errors, random)) {
+                        codewords[structure.getInterleavedIndex(b, k)] ^= 1 + random.nextInt(255);
+                        corrupted++;
+                    }
+                }
+
+                int[] decoded = new int[data.length];
+                DecodeResult result = ReedSolomonDecoding.decode(codewords, structure, decoded,
+                        new DecoderWorkspace(GaloisField.GF256, structure.getEcCodewordsPerBlock()));
+                assertArrayEquals(data, decoded, structure.toString());
+                assertEquals(corrupted, result.getCorrectedSymbols());
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package hr.fer.masters;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Records as in BulkDecoderTest: every seventh one is uncorrectable, every third one has errors to correct
+public class StreamingDecoderTest {
+
+    private static final int VERSION = 2;
+    private static final ErrorCorrectionLevel LEVEL = ErrorCorrectionLevel.M;
+    private static final int RECORDS = 500;
+
+    private static List<byte[]> records() {
+        QRBlockStructure structure = QRBlockStructure.of(VERSION, LEVEL);
+        Random random = new Random(71);
+        List<byte[]> records = new ArrayList<>();
+        for (int r = 0; r < RECORDS; r++) {
+            records.add(BulkDecoderTest.record(r, structure, random));
+        }
+        return records;
+    }
+
+    private static List<String> expectedLines() {
+        List<String> lines = new ArrayList<>();
+        for (int r = 0; r < RECORDS; r++) {
+            lines.add(r % 7 == 6 ? "ERROR: Too many errors to correct" : "record " + r);
+        }
+        return lines;
+    }
+
+    private static byte[] text(List<byte[]> records) {
+        StringBuilder text = new StringBuilder();
+        for (byte[] record : records) {
+            for (byte codeword : record) {
+                for (int bit = 7; bit >= 0; bit--) {
+                    text.append(codeword >>> bit & 1);
+                }
+            }
+            text.append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] framed(List<byte[]> records) {
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        for (byte[] record : records) {
+            framed.write(record.length >>> 8);
+            framed.write(record.length);
+            framed.writeBytes(record);
+        }
+        return framed.toByteArray();
+    }
+
+    private static byte[] raw(List<byte[]> records) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        for (byte[] record : records) {
+            raw.writeBytes(record);
+        }
+        return raw.toByteArray();
+    }
+
+    private static List<String> lines(ByteArrayOutputStream out) {
+        return Arrays.asList(out.toString(StandardCharsets.UTF_8).split(System.lineSeparator()));
+    }
+
+    private static StreamingDecoder decoder() {
+        // A queue shorter than the input, so that the reader has to wait for the writer
+        return new StreamingDecoder(VERSION, LEVEL, 3, 16, 100);
+    }
+
+    @Test
+    public void everyFormatWritesResultsInInputOrder() throws IOException {
+        List<byte[]> records = records();
+        byte[][] inputs = {text(records), framed(records), raw(records)};
+        StreamingDecoder.Format[] formats = {StreamingDecoder.Format.TEXT, StreamingDecoder.Format.FRAMED, StreamingDecoder.Format.RAW};
+
+        for (int i = 0; i < formats.length; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream stats = new ByteArrayOutputStream();
+            StreamingDecoder decoder = decoder();
+            long processed = decoder.run(new ByteArrayInputStream(inputs[i]), formats[i], new PrintStream(out), new PrintStream(stats));
+
+            assertEquals(RECORDS, processed);
+            assertEquals(expectedLines(), lines(out), formats[i].toString());
+            assertTrue(stats.toString(StandardCharsets.UTF_8).contains("processed=" + RECORDS));
+
+            assertEquals(RECORDS, decoder.getDecodeLatency().getCount());
+            assertEquals(RECORDS, decoder.getEndToEndLatency().getCount());
+            assertEquals(RECORDS / 7, decoder.getFailedLatency().getCount());
+            assertEquals(RECORDS, decoder.getCleanLatency().getCount() + decoder.getCorrectionLatency().getCount()
+                    + decoder.getFailedLatency().getCount());
+        }
+    }
+
+    @Test
+    public void rawRecordsFromABuffer() throws IOException {
+        byte[] raw = raw(records());
+        // The records start after an unrelated header
+        ByteBuffer buffer = ByteBuffer.allocate(raw.length + 10).position(10).put(raw).position(10);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(RECORDS, decoder().run(buffer, new PrintStream(out), new PrintStream(new ByteArrayOutputStream())));
+        assertEquals(expectedLines(), lines(out));
+
+        assertThrows(IOException.class, () -> decoder().run(ByteBuffer.wrap(raw, 0, raw.length - 1), new PrintStream(out),
+                new PrintStream(new ByteArrayOutputStream())));
+    }
+
+    // Repeated symbols come from the cache, with the same output
+    @Test
+    public void cachedSymbolsGiveTheSameLines() throws IOException {
+        List<byte[]> records = records();
+        List<byte[]> twice = new ArrayList<>(records);
+        twice.addAll(records);
+        List<String> expected = new ArrayList<>(expectedLines());
+        expected.addAll(expectedLines());
+
+        PayloadCache cache = new PayloadCache(1 << 20);
+        StreamingDecoder decoder = decoder();
+        decoder.setPayloadCache(cache);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        decoder.run(new ByteArrayInputStream(framed(twice)), StreamingDecoder.Format.FRAMED, new PrintStream(out),
+                new PrintStream(new ByteArrayOutputStream()));
+        assertEquals(expected, lines(out));
+        assertTrue(cache.getHitCount() > 0);
+        assertEquals(2L * RECORDS, cache.getHitCount() + cache.getMissCount());
+    }
+
+    // The symbols read before a truncated record are still written
+    @Test
+    public void truncatedInputFailsAfterTheCompleteRecords() {
+        byte[] raw = raw(records());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThrows(EOFException.class, () -> decoder().run(new ByteArrayInputStream(raw, 0, raw.length - 1),
+                StreamingDecoder.Format.RAW, new PrintStream(out), new PrintStream(new ByteArrayOutputStream())));
+        assertEquals(expectedLines().subList(0, RECORDS - 1), lines(out));
+    }
+}